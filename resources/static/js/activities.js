@@ -0,0 +1,45 @@
+function loadMore(button, appendFn) {
+    const btn = $(button);
+    $.ajax({
+        url: btn.data('url'),
+        data: {cursor: btn.data('next')}
+    }).done(page => {
+        page.content.forEach(appendFn);
+        if (page.next) {
+            btn.data('next', page.next);
+        } else {
+            btn.remove();
+        }
+    }).fail(failNoty);
+}
+
+// the same formats as the server renders: 'dd.MM.yyyy HH:mm' or with seconds 'dd.MM.yyyy, HH:mm:ss'
+function formatTime(updated, withSeconds) {
+    // LocalDateTime without zone, seconds are omitted when zero
+    const parts = updated ? /^(\d{4})-(\d{2})-(\d{2})T(\d{2}):(\d{2})(?::(\d{2}))?/.exec(updated) : null;
+    if (!parts) {
+        return '';
+    }
+    const [, year, month, day, hours, minutes, seconds = '00'] = parts;
+    return withSeconds ? `${day}.${month}.${year}, ${hours}:${minutes}:${seconds}` : `${day}.${month}.${year} ${hours}:${minutes}`;
+}
+
+function loadMoreComments(button) {
+    loadMore(button, comment => {
+        const body = $('<div class="card-body py-2"></div>')
+            .append($('<div class="fw-bold"></div>').text(comment.author ? comment.author.displayName : ''))
+            .append($('<small></small>').text(formatTime(comment.updated, true)))
+            .append($('<div class="mt-1" style="white-space: pre-wrap"></div>').text(comment.comment));
+        $('#comments').append($('<div class="card bg-light mb-2 me-2"></div>').append(body));
+    });
+}
+
+function loadMoreActivities(button) {
+    loadMore(button, activity => {
+        const row = $('<tr></tr>');
+        [activity.author ? activity.author.displayName : '', formatTime(activity.updated), activity.statusCode,
+            activity.priorityCode, activity.typeCode, activity.title, activity.estimate]
+            .forEach(value => row.append($('<td></td>').text(value == null ? '' : value)));
+        $('#activities').append(row);
+    });
+}
@@ -16,10 +16,16 @@ $(function () {
         },
         source: {
             url: "/api/tree/projects",
-            cache: false,
+            cache: true,
         },
         loadChildren: (event, data) => addSubNodesToChildren(event, data),
         lazyLoad: (event, data) => loadChildrenNodes(event, data),
+        postProcess: (event, data) => {
+            // full project tree comes as a single node: its children are sprints and backlog with their tasks
+            if (!Array.isArray(data.response)) {
+                data.result = data.response.children;
+            }
+        },
         activate: (event, data) => loadEntityInfo(event, data),
         renderNode: (event, data) => addClassByNodeType(event, data),
         icon: (event, data) => addIcon(data)
@@ -30,7 +36,7 @@ function loadChildrenNodes(event, data) {
     let ajaxUrl;
     switch (data.node.data.nodeType) {
         case 'PROJECT': {
-            ajaxUrl = '/api/tree/projects/' + data.node.data.id + '/sprints';
+            ajaxUrl = '/api/tree/projects/' + data.node.data.id + '/full';
             break;
         }
         case 'SPRINT': {
@@ -41,11 +47,15 @@ function loadChildrenNodes(event, data) {
             }
             break;
         }
+        case 'TASK': { // cut off by depth of the full project tree
+            ajaxUrl = '/api/tree/tasks/' + data.node.data.id + '/subtasks';
+            break;
+        }
     }
     data.result = {
         url: ajaxUrl,
         data: {mode: "children", parent: data.node.key},
-        cache: false
+        cache: true
     };
 }
 
@@ -54,7 +64,7 @@ function addSubNodesToChildren(event, data) {
         return;
     }
     const subNodes = data.node.data.subNodes;
-    if (subNodes.length > 0) {
+    if (subNodes && subNodes.length > 0) {
         for (let children of subNodes) {
             data.node.addChildren({
                 key: children.key,
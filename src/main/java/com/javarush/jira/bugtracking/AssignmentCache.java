@@ -0,0 +1,100 @@
+package com.javarush.jira.bugtracking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.javarush.jira.login.UserDeletedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bounded cache of active assignments by object, loaded lazily.
+ * <p>
+ * A changed object is evicted after its transaction completes; until then the changing transaction reads it from
+ * the database, as the cached list doesn't see its own changes. Caffeine waits for a load in progress before
+ * the eviction, so a list read before the commit is not left in the cache.
+ * Evictions are local to the node: changes committed by other nodes are seen after {@link #EXPIRE_AFTER_WRITE}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AssignmentCache {
+    static final int MAX_OBJECTS = 10_000;
+    static final Duration EXPIRE_AFTER_WRITE = Duration.ofSeconds(30);
+
+    private final UserBelongRepository repository;
+
+    private final Cache<Key, List<UserBelong>> cache = Caffeine.newBuilder()
+            .maximumSize(MAX_OBJECTS)
+            .expireAfterWrite(EXPIRE_AFTER_WRITE)
+            .recordStats()
+            .build();
+
+    record Key(ObjectType objectType, long objectId) {
+    }
+
+    public record Stats(long hits, long misses, double hitRate, long evictions, long size) {
+    }
+
+    //  newest first
+    public List<UserBelong> getActive(long objectId, ObjectType objectType) {
+        Key key = new Key(objectType, objectId);
+        if (changedInTransaction().contains(key)) {
+            return repository.findAllActive(objectId, objectType);
+        }
+        return cache.get(key, k -> List.copyOf(repository.findAllActive(objectId, objectType)));
+    }
+
+    public Stats getStats() {
+        CacheStats stats = cache.stats();
+        return new Stats(stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount(), cache.estimatedSize());
+    }
+
+    @EventListener
+    public void onAssignmentChanged(AssignmentChangedEvent event) {
+        Key key = new Key(event.objectType(), event.objectId());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(key);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Key> changed = (Set<Key>) TransactionSynchronizationManager.getResource(this);
+        if (changed == null) {
+            Set<Key> keys = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, keys);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AssignmentCache.this);
+                    log.debug("evict assignments of {}", keys);
+                    cache.invalidateAll(keys);
+                }
+            });
+            changed = keys;
+        }
+        changed.add(key);
+    }
+
+    //  assignments of the user are deleted by cascade, the objects are unknown
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        log.debug("evict assignments of deleted user {}", event.userId());
+        cache.asMap().values().removeIf(belongs -> belongs.stream().anyMatch(belong -> belong.getUserId() == event.userId()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Key> changedInTransaction() {
+        Set<Key> changed = (Set<Key>) TransactionSynchronizationManager.getResource(this);
+        return changed == null ? Set.of() : changed;
+    }
+}
@@ -0,0 +1,26 @@
+package com.javarush.jira.bugtracking;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(value = AssignmentCacheController.REST_URL, produces = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+public class AssignmentCacheController {
+    static final String REST_URL = "/api/admin/assignments/cache";
+
+    private final AssignmentCache cache;
+
+    @GetMapping
+    @Operation(
+            summary = "Отримати статистику кешу призначень",
+            description = "Повертає кількість влучань і промахів кешу активних призначень, частку влучань, кількість витіснень і розмір кешу"
+    )
+    public AssignmentCache.Stats getStats() {
+        return cache.getStats();
+    }
+}
@@ -0,0 +1,7 @@
+package com.javarush.jira.bugtracking;
+
+import com.javarush.jira.common.AppEvent;
+
+// active assignments of the object are changed: assigned, unassigned or auto-assigned by status
+public record AssignmentChangedEvent(ObjectType objectType, long objectId) implements AppEvent {
+}
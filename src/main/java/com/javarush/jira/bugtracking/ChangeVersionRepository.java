@@ -0,0 +1,69 @@
+package com.javarush.jira.bugtracking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+
+/**
+ * Change counters behind the ETags of tree and board endpoints: project version is bumped by changes of the project
+ * and its sprints, sprint version by changes of its tasks and their assignments
+ * (and by rollup changes of its tasks, see TaskRepository.addToAncestorRollups).
+ * Bumps run in the transaction of the change and ETags are read before the data,
+ * so newer data is never sent under an older ETag.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ChangeVersionRepository {
+    private static final String PROJECTS_ETAG =
+            "SELECT md5(coalesce(string_agg(id || ':' || version, ',' ORDER BY id), '')) FROM project";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void bumpProject(long projectId) {
+        jdbcTemplate.update("UPDATE project SET version = version + 1 WHERE id = ?", projectId);
+    }
+
+    // null is the backlog, it has no counter
+    public void bumpSprint(@Nullable Long sprintId) {
+        if (sprintId != null) {
+            jdbcTemplate.update("UPDATE sprint SET version = version + 1 WHERE id = ?", sprintId);
+        }
+    }
+
+    public void bumpSprints(Collection<Long> sprintIds) {
+        List<Long> ids = sprintIds.stream().filter(Objects::nonNull).distinct().sorted().toList();
+        if (!ids.isEmpty()) {
+            jdbcTemplate.update("UPDATE sprint SET version = version + 1 WHERE id = ANY (?)",
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+        }
+    }
+
+    public String getProjectsETag() {
+        return jdbcTemplate.queryForObject(PROJECTS_ETAG, String.class);
+    }
+
+    public Map<Long, Long> getProjectVersions() {
+        Map<Long, Long> versions = new HashMap<>();
+        jdbcTemplate.query("SELECT id, version FROM project", rs -> {
+            versions.put(rs.getLong(1), rs.getLong(2));
+        });
+        return versions;
+    }
+
+    // null for not existing project
+    @Nullable
+    public String getProjectETag(long projectId) {
+        return DataAccessUtils.singleResult(
+                jdbcTemplate.queryForList("SELECT id || '.' || version FROM project WHERE id = ?", String.class, projectId));
+    }
+
+    @Nullable
+    public String getSprintETag(long sprintId) {
+        return DataAccessUtils.singleResult(
+                jdbcTemplate.queryForList("SELECT id || '.' || version FROM sprint WHERE id = ?", String.class, sprintId));
+    }
+}
@@ -5,6 +5,7 @@ import com.javarush.jira.bugtracking.attachment.AttachmentMapper;
 import com.javarush.jira.bugtracking.attachment.AttachmentRepository;
 import com.javarush.jira.bugtracking.attachment.to.AttachmentTo;
 import com.javarush.jira.bugtracking.project.Project;
+import com.javarush.jira.bugtracking.project.ProjectChangedEvent;
 import com.javarush.jira.bugtracking.project.ProjectMapper;
 import com.javarush.jira.bugtracking.project.ProjectRepository;
 import com.javarush.jira.bugtracking.project.to.ProjectTo;
@@ -32,9 +33,11 @@ import com.javarush.jira.common.to.BaseTo;
 import com.javarush.jira.login.AuthUser;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -42,13 +45,44 @@ import java.util.function.Function;
 public class Handlers {
     @Component
     public static class ProjectHandler extends UserBelongHandler<Project, ProjectTo, ProjectRepository, ProjectMapper> {
+        @Autowired
+        private ChangeVersionRepository versionRepository;
+
         public ProjectHandler(ProjectRepository repository, ProjectMapper mapper) {
             super(repository, mapper);
         }
+
+        @Override
+        @Transactional
+        public Project createWithBelong(ProjectTo to, ObjectType type, String userTypeCode) {
+            Project created = super.createWithBelong(to, type, userTypeCode);
+            eventPublisher.publishEvent(new ProjectChangedEvent(created.id()));
+            return created;
+        }
+
+        @Override
+        @Transactional
+        public Project updateFromTo(ProjectTo to, long id) {
+            Project updated = super.updateFromTo(to, id);
+            versionRepository.bumpProject(id);
+            eventPublisher.publishEvent(new ProjectChangedEvent(id));
+            return updated;
+        }
+
+        @Override
+        @Transactional
+        public void enable(long id, boolean enabled) {
+            super.enable(id, enabled);
+            versionRepository.bumpProject(id);
+            eventPublisher.publishEvent(new ProjectChangedEvent(id));
+        }
     }
 
     @Component
     public static class SprintHandler extends UserBelongHandler<Sprint, SprintTo, SprintRepository, SprintMapper> {
+        @Autowired
+        private ChangeVersionRepository versionRepository;
+
         public SprintHandler(SprintRepository repository, SprintMapper mapper) {
             super(repository, mapper, null, (sprint, dbSprint) -> {  // link spring to other project not allowed
                 SprintMapper.checkProjectBelong(sprint.getProjectId(), dbSprint);
@@ -57,13 +91,46 @@ public class Handlers {
                 return sprint;
             });
         }
+
+        @Override
+        @Transactional
+        public Sprint createWithBelong(SprintTo to, ObjectType type, String userTypeCode) {
+            Sprint created = super.createWithBelong(to, type, userTypeCode);
+            versionRepository.bumpProject(created.getProjectId());
+            return created;
+        }
+
+        @Override
+        @Transactional
+        public Sprint updateFromTo(SprintTo to, long id) {
+            Sprint updated = super.updateFromTo(to, id);
+            versionRepository.bumpProject(updated.getProjectId());
+            return updated;
+        }
+
+        @Override
+        @Transactional
+        public void enable(long id, boolean enabled) {
+            super.enable(id, enabled);
+            versionRepository.bumpProject(getRepository().getExisted(id).getProjectId());
+        }
     }
 
     @Component
     public static class TaskHandler extends UserBelongHandler<Task, TaskTo, TaskRepository, TaskMapper> {
+        @Autowired
+        private ChangeVersionRepository versionRepository;
+
         public TaskHandler(TaskRepository repository, TaskMapper mapper) {
             super(repository, mapper);
         }
+
+        @Override
+        @Transactional
+        public void enable(long id, boolean enabled) {
+            super.enable(id, enabled);
+            versionRepository.bumpSprint(getRepository().getExisted(id).getSprintId());
+        }
     }
 
     @Component
@@ -98,6 +165,10 @@ public class Handlers {
     public static class UserBelongHandler<E extends HasId, T extends BaseTo, R extends BaseRepository<E>, M extends BaseMapper<E, T>> extends BaseHandler<E, T, R, M> {
         @Autowired
         private UserBelongRepository belongRepository;
+        @Autowired
+        private AssignmentCache assignmentCache;
+        @Autowired
+        protected ApplicationEventPublisher eventPublisher;
 
         public UserBelongHandler(R repository, M mapper) {
             super(repository, mapper);
@@ -107,8 +178,8 @@ public class Handlers {
             super(repository, mapper, prepareForSave, prepareForUpdate);
         }
 
-        public List<UserBelong> getAllBelongs(long objectId) {
-            return belongRepository.findAll(objectId);
+        public List<UserBelong> getAllBelongs(long objectId, ObjectType type) {
+            return assignmentCache.getActive(objectId, type);
         }
 
         @Transactional
@@ -118,12 +189,14 @@ public class Handlers {
             return created;
         }
 
+        //  false when already assigned
         @Transactional
-        public void createUserBelong(long id, ObjectType type, long userId, String userTypeCode) {
-            if (belongRepository.findActiveAssignment(id, type, userId, userTypeCode).isEmpty()) {
-                UserBelong belong = new UserBelong(id, type, userId, userTypeCode);
-                belongRepository.save(belong);
+        public boolean createUserBelong(long id, ObjectType type, long userId, String userTypeCode) {
+            if (belongRepository.insertActive(id, type, userId, userTypeCode, LocalDateTime.now()) == 0) {
+                return false;
             }
+            eventPublisher.publishEvent(new AssignmentChangedEvent(type, id));
+            return true;
         }
     }
 }
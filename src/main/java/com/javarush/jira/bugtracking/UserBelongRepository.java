@@ -1,9 +1,12 @@
 package com.javarush.jira.bugtracking;
 
 import com.javarush.jira.common.BaseRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,8 +15,8 @@ public interface UserBelongRepository extends BaseRepository<UserBelong> {
     @Query("select count(u)>0 from UserBelong u where u.objectId=?1 and u.objectType=?2 and u.userId=?3 and u.userTypeCode=?4")
     boolean exists(long objectId, ObjectType type, long userId, String code);
 
-    @Query("from UserBelong u where u.objectId=?1 order by u.startpoint desc")
-    List<UserBelong> findAll(long objectId);
+    @Query("from UserBelong u where u.objectId=?1 and u.objectType=?2 and u.endpoint is null order by u.startpoint desc")
+    List<UserBelong> findAllActive(long objectId, ObjectType objectType);
 
     @Query("SELECT u FROM UserBelong u JOIN Task t ON u.objectId = t.id JOIN Sprint s ON t.sprintId = s.id " +
             "WHERE u.userId = :userId AND u.objectType = :#{T(com.javarush.jira.bugtracking.ObjectType).TASK} " +
@@ -22,4 +25,27 @@ public interface UserBelongRepository extends BaseRepository<UserBelong> {
 
     @Query("SELECT u FROM UserBelong u WHERE u.objectId =?1 AND u.objectType=?2 and u.userId=?3 and u.userTypeCode=?4 and u.endpoint IS NULL")
     Optional<UserBelong> findActiveAssignment(long objectId, ObjectType objectType, long userId, String userTypeCode);
+
+    //  concurrent assignments of the same role meet at the partial UK_USER_BELONG: 0 when already assigned
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO user_belong (object_id, object_type, user_id, user_type_code, startpoint)
+            VALUES (:objectId, :#{#objectType.ordinal()}, :userId, :userTypeCode, :startpoint)
+            ON CONFLICT (object_id, object_type, user_id, user_type_code) WHERE endpoint IS NULL DO NOTHING
+            """, nativeQuery = true)
+    int insertActive(long objectId, ObjectType objectType, long userId, String userTypeCode, LocalDateTime startpoint);
+
+    //  0 when not assigned
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE user_belong SET endpoint = :endpoint
+            WHERE object_id = :objectId AND object_type = :#{#objectType.ordinal()} AND user_id = :userId
+              AND user_type_code = :userTypeCode AND endpoint IS NULL
+            """, nativeQuery = true)
+    int endActive(long objectId, ObjectType objectType, long userId, String userTypeCode, LocalDateTime endpoint);
+
+    @Query("SELECT u FROM UserBelong u WHERE u.objectId IN ?1 AND u.objectType=?2 and u.userId=?3 and u.endpoint IS NULL")
+    List<UserBelong> findActiveAssignments(Collection<Long> objectIds, ObjectType objectType, long userId);
 }
@@ -1,7 +1,6 @@
 package com.javarush.jira.bugtracking.dashboard;
 
-import com.javarush.jira.bugtracking.Handlers;
-import com.javarush.jira.common.TimestampRepository;
+import com.javarush.jira.bugtracking.project.ProjectCatalog;
 import com.javarush.jira.ref.RefType;
 import com.javarush.jira.ref.ReferenceService;
 import lombok.RequiredArgsConstructor;
@@ -18,12 +17,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 public class DashboardUIController {
     static final String DASHBOARD_URL = "/ui/dashboard";
 
-    private final Handlers.ProjectHandler handler;
+    private final ProjectCatalog catalog;
 
     @GetMapping
     public String showDashboard(Model model) {
         log.info("show dashboard");
-        model.addAttribute("projects", handler.getAllTos(TimestampRepository.NEWEST_FIRST));
+        model.addAttribute("projects", catalog.get().projects());
         model.addAttribute("taskStatusRefs", ReferenceService.getRefs(RefType.TASK_STATUS));
         return "dashboard";
     }
@@ -0,0 +1,136 @@
+package com.javarush.jira.bugtracking.project;
+
+import com.javarush.jira.bugtracking.ChangeVersionRepository;
+import com.javarush.jira.bugtracking.project.to.ProjectTo;
+import com.javarush.jira.common.util.Forest;
+import com.javarush.jira.common.util.Util;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory catalog of all projects: an immutable snapshot with the project hierarchy prebuilt, swapped atomically.
+ * <p>
+ * Reads are served from memory. The snapshot is revalidated against the digest of project versions in the database
+ * ({@link ChangeVersionRepository#getProjectsETag()}) by the next read after a change committed on this node
+ * and periodically, so changes of other nodes are seen after <code>app.projects.revalidate-interval</code> at most.
+ * On mismatch only the projects with changed versions are reloaded and merged into a new snapshot.
+ * Versions are read before the data: a change in between only makes the next revalidation reload the project again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectCatalog {
+    private final ProjectRepository repository;
+    private final ProjectMapper mapper;
+    private final ChangeVersionRepository versionRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private volatile boolean stale;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param digest   projects digest the snapshot is up to date with, the ETag of the projects
+     * @param versions project id -> version of the loaded projects
+     * @param projects newest first, as {@link ProjectRepository#getAll()}
+     */
+    public record Snapshot(String digest, Map<Long, Long> versions, List<ProjectTo> projects, Map<Long, ProjectTo> byId,
+                           Forest<ProjectTo> hierarchy) {
+        static Snapshot of(String digest, Map<Long, Long> versions, List<ProjectTo> projects) {
+            Map<Long, ProjectTo> byId = new HashMap<>();
+            projects.forEach(project -> byId.put(project.id(), project));
+            return new Snapshot(digest, Map.copyOf(versions), List.copyOf(projects), Collections.unmodifiableMap(byId), Forest.of(projects));
+        }
+
+        public ProjectTo getExisted(long id) {
+            return Util.checkExist(id, Optional.ofNullable(byId.get(id)));
+        }
+    }
+
+    public record Stats(long hits, long misses, double hitRate, String digest, int projects) {
+    }
+
+    public Snapshot get() {
+        Snapshot current = snapshot.get();
+        if (current != null && !stale) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        // cleared before the digest is read, a change committed after it makes the snapshot stale again
+        stale = false;
+        return refresh(versionRepository.getProjectsETag());
+    }
+
+    //  own changes are seen by the next read, without waiting for the revalidation
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        stale = true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.projects.revalidate-interval:PT5S}",
+            initialDelayString = "${app.projects.revalidate-interval:PT5S}")
+    public void revalidate() {
+        Snapshot current = snapshot.get();
+        if (current != null) {
+            String digest = versionRepository.getProjectsETag();
+            if (!current.digest().equals(digest)) {
+                refresh(digest);
+            }
+        }
+    }
+
+    public Stats getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        Snapshot current = snapshot.get();
+        return new Stats(hitCount, missCount, total == 0 ? 0 : (double) hitCount / total,
+                current == null ? null : current.digest(), current == null ? 0 : current.projects().size());
+    }
+
+    private synchronized Snapshot refresh(String digest) {
+        Snapshot current = snapshot.get();
+        if (current != null && current.digest().equals(digest)) {
+            return current;
+        }
+        Map<Long, Long> versions = versionRepository.getProjectVersions();
+        Snapshot refreshed;
+        if (current == null) {
+            refreshed = Snapshot.of(digest, versions, mapper.toToList(repository.getAll()));
+            log.info("load {} projects", refreshed.projects().size());
+        } else {
+            List<Long> ids = versions.entrySet().stream()
+                    .filter(entry -> !entry.getValue().equals(current.versions().get(entry.getKey())))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            refreshed = merge(digest, versions, current, mapper.toToList(repository.findAllById(ids)));
+            log.info("reload projects {}", ids);
+        }
+        snapshot.set(refreshed);
+        return refreshed;
+    }
+
+    //  startpoint is not changed by update, so updated projects keep their places and new ones are the newest;
+    //  projects without version are not in the database anymore
+    private static Snapshot merge(String digest, Map<Long, Long> versions, Snapshot current, List<ProjectTo> changed) {
+        Map<Long, ProjectTo> changedById = new HashMap<>();
+        changed.forEach(project -> changedById.put(project.id(), project));
+        List<ProjectTo> projects = new ArrayList<>(current.projects().size() + changed.size());
+        changed.stream()
+                .filter(project -> !current.byId().containsKey(project.id()))
+                .sorted(Comparator.comparing(ProjectTo::id).reversed())
+                .forEach(projects::add);
+        current.projects().stream()
+                .filter(project -> versions.containsKey(project.id()))
+                .forEach(project -> projects.add(changedById.getOrDefault(project.id(), project)));
+        return Snapshot.of(digest, versions, projects);
+    }
+}
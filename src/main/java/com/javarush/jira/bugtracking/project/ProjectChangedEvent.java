@@ -0,0 +1,6 @@
+package com.javarush.jira.bugtracking.project;
+
+import com.javarush.jira.common.AppEvent;
+
+public record ProjectChangedEvent(long projectId) implements AppEvent {
+}
@@ -21,6 +21,7 @@ import static com.javarush.jira.common.BaseHandler.createdResponse;
 @RequiredArgsConstructor
 public class ProjectController {
     private final Handlers.ProjectHandler handler;
+    private final ProjectCatalog catalog;
 
     @GetMapping("/projects")
     @Operation(
@@ -29,7 +30,7 @@ public class ProjectController {
     )
 
     public List<ProjectTo> getAll() {
-        return handler.getAllTos(ProjectRepository.NEWEST_FIRST);
+        return catalog.get().projects();
     }
 
     @GetMapping("/projects/{id}")
@@ -38,7 +39,16 @@ public class ProjectController {
             description = "Повертає повну інформацію про проєкт із зазначеним ID"
     )
     public ProjectTo getById(@PathVariable Long id) {
-        return handler.getTo(id);
+        return catalog.get().getExisted(id);
+    }
+
+    @GetMapping("/admin/projects/catalog")
+    @Operation(
+            summary = "Отримати статистику кешу проєктів",
+            description = "Повертає кількість звернень до кешу проєктів з влучаннями та промахами, частку влучань і розмір кешу"
+    )
+    public ProjectCatalog.Stats getCatalogStats() {
+        return catalog.getStats();
     }
 
     @PostMapping(path = "/mngr/projects", consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -31,7 +31,7 @@ public class ProjectUIController {
         model.addAttribute("project", mapperFull.toTo(Util.checkExist(id, handler.getRepository().findFullById(id))));
         model.addAttribute("fragment", fragment);
         model.addAttribute("attachs", attachmentHandler.getRepository().getAllForObject(id, ObjectType.PROJECT));
-        model.addAttribute("belongs", handler.getAllBelongs(id));
+        model.addAttribute("belongs", handler.getAllBelongs(id, ObjectType.PROJECT));
         return "project";
     }
 
@@ -1,12 +1,13 @@
 package com.javarush.jira.bugtracking.project.to;
 
+import com.javarush.jira.common.HasIdAndParentId;
 import com.javarush.jira.common.to.TitleTo;
 import com.javarush.jira.common.util.validation.Code;
 import com.javarush.jira.common.util.validation.Description;
 import lombok.Getter;
 
 @Getter
-public class ProjectTo extends TitleTo {
+public class ProjectTo extends TitleTo implements HasIdAndParentId {
     @Description
     String description;
 
@@ -0,0 +1,62 @@
+package com.javarush.jira.bugtracking.sprint;
+
+import com.javarush.jira.bugtracking.ObjectType;
+import com.javarush.jira.bugtracking.sprint.to.UserCapacityTo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Sprint workload by user in one aggregate: enabled tasks of the sprint (IX_TASK_SPRINT_ID_STATUS_CODE) joined with
+ * their active assignments (IX_USER_BELONG_OBJECT). A user with several roles at a task counts the task once.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SprintCapacityRepository {
+    static final List<String> WORK_USER_TYPES = List.of("task_developer", "task_reviewer", "task_tester");
+    static final List<String> CLOSED_STATUSES = List.of("done", "canceled");
+
+    private static final String CAPACITY_QUERY = """
+            SELECT w.user_id, u.display_name, count(*) AS tasks, count(*) FILTER (WHERE w.open) AS open_tasks,
+                   coalesce(sum(w.estimate) FILTER (WHERE w.open), 0) AS remaining_estimate
+              FROM (SELECT DISTINCT ub.user_id, t.id, t.estimate, t.status_code NOT IN (:closedStatuses) AS open
+                      FROM task t
+                           JOIN user_belong ub ON ub.object_id = t.id AND ub.object_type = :objectType AND ub.endpoint IS NULL
+                     WHERE t.sprint_id = :sprintId AND t.endpoint IS NULL AND ub.user_type_code IN (:userTypes)) w
+                   JOIN users u ON u.id = w.user_id
+             GROUP BY w.user_id, u.display_name
+             ORDER BY remaining_estimate DESC, w.user_id
+            """;
+
+    //  sprints where the user is in the report
+    private static final String USER_SPRINTS_QUERY = """
+            SELECT DISTINCT t.sprint_id
+              FROM user_belong ub
+                   JOIN task t ON t.id = ub.object_id
+             WHERE ub.user_id = :userId AND ub.object_type = :objectType AND ub.endpoint IS NULL
+               AND ub.user_type_code IN (:userTypes) AND t.sprint_id IS NOT NULL AND t.endpoint IS NULL
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<UserCapacityTo> getBySprint(long sprintId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("sprintId", sprintId)
+                .addValue("objectType", ObjectType.TASK.ordinal())
+                .addValue("userTypes", WORK_USER_TYPES)
+                .addValue("closedStatuses", CLOSED_STATUSES);
+        return jdbcTemplate.query(CAPACITY_QUERY, params, (rs, rowNum) -> new UserCapacityTo(rs.getLong("user_id"),
+                rs.getString("display_name"), rs.getInt("tasks"), rs.getInt("open_tasks"), rs.getLong("remaining_estimate")));
+    }
+
+    public List<Long> getSprintIdsByUser(long userId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("objectType", ObjectType.TASK.ordinal())
+                .addValue("userTypes", WORK_USER_TYPES);
+        return jdbcTemplate.queryForList(USER_SPRINTS_QUERY, params, Long.class);
+    }
+}
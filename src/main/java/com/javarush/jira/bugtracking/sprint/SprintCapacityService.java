@@ -0,0 +1,56 @@
+package com.javarush.jira.bugtracking.sprint;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.javarush.jira.bugtracking.ChangeVersionRepository;
+import com.javarush.jira.bugtracking.sprint.to.UserCapacityTo;
+import com.javarush.jira.common.util.Util;
+import com.javarush.jira.login.UserDeletedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Sprint capacity reports cached by the sprint version: task, estimate and assignment changes bump the version,
+ * so a report is reused until the next change of the sprint. The version is read before the report,
+ * as for ETags, so a report is never stored under a newer version than its data.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SprintCapacityService {
+    static final int MAX_SPRINTS = 1_000;
+
+    private final SprintCapacityRepository repository;
+    private final ChangeVersionRepository versionRepository;
+
+    private final Cache<Long, Report> reports = Caffeine.newBuilder()
+            .maximumSize(MAX_SPRINTS)
+            .build();
+
+    public record Report(String version, List<UserCapacityTo> users) {
+    }
+
+    public Report get(long sprintId) {
+        String version = Util.checkExist(sprintId, Optional.ofNullable(versionRepository.getSprintETag(sprintId)));
+        Report cached = reports.getIfPresent(sprintId);
+        if (cached != null && cached.version().equals(version)) {
+            return cached;
+        }
+        log.debug("calculate capacity of sprint {} version {}", sprintId, version);
+        Report report = new Report(version, List.copyOf(repository.getBySprint(sprintId)));
+        reports.put(sprintId, report);
+        return report;
+    }
+
+    //  assignments of the user are deleted by cascade: the event comes before the delete in its transaction,
+    //  so the reports with the user get new versions (and ETags) committed together with the delete
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        versionRepository.bumpSprints(repository.getSprintIdsByUser(event.userId()));
+    }
+}
@@ -1,8 +1,11 @@
 package com.javarush.jira.bugtracking.sprint;
 
+import com.javarush.jira.bugtracking.ChangeVersionRepository;
 import com.javarush.jira.bugtracking.Handlers;
 import com.javarush.jira.bugtracking.project.ProjectRepository;
 import com.javarush.jira.bugtracking.sprint.to.SprintTo;
+import com.javarush.jira.bugtracking.sprint.to.UserCapacityTo;
+import com.javarush.jira.common.util.Util;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.annotation.Nullable;
 import jakarta.validation.Valid;
@@ -15,6 +18,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -31,6 +35,8 @@ public class SprintController {
     private final ProjectRepository projectRepository;
 
     private final Handlers.SprintHandler handler;
+    private final ChangeVersionRepository versionRepository;
+    private final SprintCapacityService capacityService;
 
     @GetMapping("/sprints/{id}")
     @Operation(
@@ -41,6 +47,21 @@ public class SprintController {
         return handler.getTo(id);
     }
 
+    @GetMapping("/sprints/{id}/capacity")
+    @Operation(
+            summary = "Отримати завантаження спринту",
+            description = "Повертає для кожного користувача з активними призначеннями розробника, рецензента чи тестувальника " +
+                    "кількість задач спринту, кількість незакритих задач та суму їх оцінок; 304 за незмінним ETag спринту"
+    )
+    public List<UserCapacityTo> getCapacity(@PathVariable long id, ServletWebRequest request) {
+        log.info("get capacity of sprint {}", id);
+        SprintCapacityService.Report report = capacityService.get(id);
+        if (Util.checkNotModified(report.version(), request)) {
+            return null;
+        }
+        return report.users();
+    }
+
     @GetMapping("/sprints/by-project")
     @Operation(
             summary = "Отримати спринти за проєктом",
@@ -103,6 +124,7 @@ public class SprintController {
         log.info("change statusCode of sprint {}", id);
         Sprint sprint = handler.getRepository().getExisted(id);
         sprint.setStatusCode(statusCode);
+        versionRepository.bumpProject(sprint.getProjectId());
     }
 
     @PatchMapping("/mngr/sprints/{id}")
@@ -35,7 +35,7 @@ public class SprintUIController {
         model.addAttribute("sprint", mapperFull.toTo(Util.checkExist(id, handler.getRepository().findFullById(id))));
         model.addAttribute("fragment", fragment);
         model.addAttribute("attachs", attachmentHandler.getRepository().getAllForObject(id, SPRINT));
-        model.addAttribute("belongs", handler.getAllBelongs(id));
+        model.addAttribute("belongs", handler.getAllBelongs(id, SPRINT));
         return "sprint";
     }
 
@@ -0,0 +1,6 @@
+package com.javarush.jira.bugtracking.sprint.to;
+
+// Load of a user in a sprint: tasks with the user's active developer/reviewer/tester assignments,
+// open ones are not done or canceled, remaining estimate is the sum of estimates of open tasks
+public record UserCapacityTo(long userId, String displayName, int tasks, int openTasks, long remainingEstimate) {
+}
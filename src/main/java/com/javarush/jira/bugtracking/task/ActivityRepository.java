@@ -1,9 +1,11 @@
 package com.javarush.jira.bugtracking.task;
 
 import com.javarush.jira.common.BaseRepository;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Transactional(readOnly = true)
@@ -11,6 +13,39 @@ public interface ActivityRepository extends BaseRepository<Activity> {
     @Query("SELECT a FROM Activity a JOIN FETCH a.author WHERE a.taskId =:taskId ORDER BY a.updated DESC")
     List<Activity> findAllByTaskIdOrderByUpdatedDesc(long taskId);
 
-    @Query("SELECT a FROM Activity a JOIN FETCH a.author WHERE a.taskId =:taskId AND a.comment IS NOT NULL ORDER BY a.updated DESC")
-    List<Activity> findAllComments(long taskId);
+    @Query("""
+            SELECT a FROM Activity a JOIN FETCH a.author WHERE a.taskId =:taskId AND a.comment IS NULL
+            AND (a.updated < :updated OR a.updated = :updated AND a.id < :id) ORDER BY a.updated DESC, a.id DESC
+            """)
+    List<Activity> findHistoryPage(long taskId, LocalDateTime updated, long id, Pageable pageable);
+
+    @Query("""
+            SELECT a FROM Activity a JOIN FETCH a.author WHERE a.taskId =:taskId AND a.comment IS NOT NULL
+            AND (a.updated < :updated OR a.updated = :updated AND a.id < :id) ORDER BY a.updated DESC, a.id DESC
+            """)
+    List<Activity> findCommentsPage(long taskId, LocalDateTime updated, long id, Pageable pageable);
+
+    @Query(value = """
+            SELECT (SELECT a.status_code FROM activity a WHERE a.task_id=:taskId AND a.status_code IS NOT NULL ORDER BY a.updated DESC, a.id DESC LIMIT 1) AS statusCode,
+                   (SELECT a.type_code FROM activity a WHERE a.task_id=:taskId AND a.type_code IS NOT NULL ORDER BY a.updated DESC, a.id DESC LIMIT 1) AS typeCode,
+                   (SELECT a.description FROM activity a WHERE a.task_id=:taskId AND a.description IS NOT NULL ORDER BY a.updated DESC, a.id DESC LIMIT 1) AS description,
+                   (SELECT a.priority_code FROM activity a WHERE a.task_id=:taskId AND a.priority_code IS NOT NULL ORDER BY a.updated DESC, a.id DESC LIMIT 1) AS priorityCode,
+                   (SELECT a.estimate FROM activity a WHERE a.task_id=:taskId AND a.estimate IS NOT NULL ORDER BY a.updated DESC, a.id DESC LIMIT 1) AS estimate,
+                   (SELECT max(a.updated) FROM activity a WHERE a.task_id=:taskId) AS updated
+            """, nativeQuery = true)
+    LatestState findLatestState(long taskId);
+
+    interface LatestState {
+        String getStatusCode();
+
+        String getTypeCode();
+
+        String getDescription();
+
+        String getPriorityCode();
+
+        Integer getEstimate();
+
+        LocalDateTime getUpdated();
+    }
 }
@@ -1,21 +1,28 @@
 package com.javarush.jira.bugtracking.task;
 
+import com.javarush.jira.bugtracking.ChangeVersionRepository;
 import com.javarush.jira.bugtracking.Handlers;
 import com.javarush.jira.bugtracking.task.to.ActivityTo;
+import com.javarush.jira.bugtracking.task.to.TaskRollupTo;
 import com.javarush.jira.common.error.DataConflictException;
+import com.javarush.jira.common.to.PageTo;
+import com.javarush.jira.common.util.KeysetCursor;
 import com.javarush.jira.login.AuthUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
-import static com.javarush.jira.bugtracking.task.TaskUtil.getLatestValue;
+import static com.javarush.jira.bugtracking.task.TaskUtil.ownRollup;
+import static com.javarush.jira.bugtracking.task.TaskUtil.rollupDelta;
 
 @Service
 @RequiredArgsConstructor
 public class ActivityService {
     private final TaskRepository taskRepository;
+    private final ChangeVersionRepository versionRepository;
 
     private final Handlers.ActivityHandler handler;
 
@@ -25,24 +32,45 @@ public class ActivityService {
         }
     }
 
+    public PageTo<ActivityTo> getHistory(long taskId, @Nullable String cursor, @Nullable Integer size) {
+        KeysetCursor from = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        return toPage(handler.getRepository().findHistoryPage(taskId, from.timestamp(), from.id(), KeysetCursor.limit(pageSize)), pageSize);
+    }
+
+    public PageTo<ActivityTo> getComments(long taskId, @Nullable String cursor, @Nullable Integer size) {
+        KeysetCursor from = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        return toPage(handler.getRepository().findCommentsPage(taskId, from.timestamp(), from.id(), KeysetCursor.limit(pageSize)), pageSize);
+    }
+
+    private PageTo<ActivityTo> toPage(List<Activity> activities, int pageSize) {
+        return KeysetCursor.toPage(activities, pageSize, a -> new KeysetCursor(a.getUpdated(), a.id()), handler.getMapper()::toToList);
+    }
+
     @Transactional
     public Activity create(ActivityTo activityTo) {
         checkBelong(activityTo);
         Task task = taskRepository.getExisted(activityTo.getTaskId());
+        TaskRollupTo before = ownRollup(task);
         if (activityTo.getStatusCode() != null) {
             task.checkAndSetStatusCode(activityTo.getStatusCode());
         }
         if (activityTo.getTypeCode() != null) {
             task.setTypeCode(activityTo.getTypeCode());
         }
-        return handler.createFromTo(activityTo);
+        Activity created = handler.createFromTo(activityTo);
+        task.applyActivity(created);
+        taskRepository.addToAncestorRollups(task, rollupDelta(ownRollup(task), before));
+        versionRepository.bumpSprint(task.getSprintId());
+        return created;
     }
 
     @Transactional
     public void update(ActivityTo activityTo, long id) {
         checkBelong(handler.getRepository().getExisted(activityTo.getId()));
         handler.updateFromTo(activityTo, id);
-        updateTaskIfRequired(activityTo.getTaskId(), activityTo.getStatusCode(), activityTo.getTypeCode());
+        updateTaskState(activityTo.getTaskId(), activityTo.getStatusCode(), activityTo.getTypeCode());
     }
 
     @Transactional
@@ -50,27 +78,30 @@ public class ActivityService {
         Activity activity = handler.getRepository().getExisted(id);
         checkBelong(activity);
         handler.delete(activity.id());
-        updateTaskIfRequired(activity.getTaskId(), activity.getStatusCode(), activity.getTypeCode());
+        updateTaskState(activity.getTaskId(), activity.getStatusCode(), activity.getTypeCode());
     }
 
-    private void updateTaskIfRequired(long taskId, String activityStatus, String activityType) {
-        if (activityStatus != null || activityType != null) {
-            Task task = taskRepository.getExisted(taskId);
-            List<Activity> activities = handler.getRepository().findAllByTaskIdOrderByUpdatedDesc(task.id());
-            if (activityStatus != null) {
-                String latestStatus = getLatestValue(activities, Activity::getStatusCode);
-                if (latestStatus == null) {
-                    throw new DataConflictException("Primary activity cannot be delete or update with null values");
-                }
-                task.setStatusCode(latestStatus);
+    private void updateTaskState(long taskId, String activityStatus, String activityType) {
+        Task task = taskRepository.getExisted(taskId);
+        TaskRollupTo before = ownRollup(task);
+        ActivityRepository.LatestState latest = handler.getRepository().findLatestState(taskId);
+        if (activityStatus != null) {
+            if (latest.getStatusCode() == null) {
+                throw new DataConflictException("Primary activity cannot be delete or update with null values");
             }
-            if (activityType != null) {
-                String latestType = getLatestValue(activities, Activity::getTypeCode);
-                if (latestType == null) {
-                    throw new DataConflictException("Primary activity cannot be delete or update with null values");
-                }
-                task.setTypeCode(latestType);
+            task.setStatusCode(latest.getStatusCode());
+        }
+        if (activityType != null) {
+            if (latest.getTypeCode() == null) {
+                throw new DataConflictException("Primary activity cannot be delete or update with null values");
             }
+            task.setTypeCode(latest.getTypeCode());
         }
+        task.setDescription(latest.getDescription());
+        task.setPriorityCode(latest.getPriorityCode());
+        task.setEstimate(latest.getEstimate());
+        task.setUpdated(latest.getUpdated());
+        taskRepository.addToAncestorRollups(task, rollupDelta(ownRollup(task), before));
+        versionRepository.bumpSprint(task.getSprintId());
     }
 }
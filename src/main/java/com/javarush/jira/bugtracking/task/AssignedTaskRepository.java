@@ -0,0 +1,84 @@
+package com.javarush.jira.bugtracking.task;
+
+import com.javarush.jira.bugtracking.ObjectType;
+import com.javarush.jira.bugtracking.task.to.AssignedTaskFilter;
+import com.javarush.jira.bugtracking.task.to.AssignedTaskTo;
+import com.javarush.jira.common.to.CodeTo;
+import com.javarush.jira.common.util.KeysetCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read model of the "my work" list: active task assignments of a user across all projects and sprints.
+ * Assignments are grouped per task over IX_USER_BELONG_ACTIVE_ASSIGNEE and joined to task, project and sprint
+ * by primary keys, ordered by the latest assignment (assigned DESC, id DESC) for {@link KeysetCursor} pages.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AssignedTaskRepository {
+    private static final String ASSIGNED_TASKS_QUERY = """
+            SELECT t.id, t.title, t.type_code, t.status_code, t.priority_code,
+                   t.project_id, p.code AS project_code, t.sprint_id, s.code AS sprint_code,
+                   a.roles, a.assigned
+              FROM (SELECT ub.object_id, array_agg(ub.user_type_code ORDER BY ub.user_type_code) AS roles,
+                           max(ub.startpoint) AS assigned
+                      FROM user_belong ub
+                     WHERE ub.user_id = :userId AND ub.object_type = :objectType AND ub.endpoint IS NULL
+                     GROUP BY ub.object_id
+                    %s) a
+                   JOIN task t ON t.id = a.object_id
+                   JOIN project p ON p.id = t.project_id
+                   LEFT JOIN sprint s ON s.id = t.sprint_id
+             WHERE t.endpoint IS NULL AND (a.assigned, t.id) < (:fromAssigned, :fromId)%s
+             ORDER BY a.assigned DESC, t.id DESC
+             LIMIT :limit
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<AssignedTaskTo> find(long userId, AssignedTaskFilter filter, KeysetCursor from, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("objectType", ObjectType.TASK.ordinal())
+                .addValue("fromAssigned", from.timestamp())
+                .addValue("fromId", from.id())
+                .addValue("limit", limit);
+        String having = "";
+        if (filter.userType() != null) {
+            having = "HAVING bool_or(ub.user_type_code = :userType)";
+            params.addValue("userType", filter.userType());
+        }
+        StringBuilder where = new StringBuilder();
+        if (filter.projectId() != null) {
+            where.append(" AND t.project_id = :projectId");
+            params.addValue("projectId", filter.projectId());
+        }
+        if (filter.sprintId() != null) {
+            where.append(" AND t.sprint_id = :sprintId");
+            params.addValue("sprintId", filter.sprintId());
+        }
+        if (filter.statusCode() != null && !filter.statusCode().isEmpty()) {
+            where.append(" AND t.status_code IN (:statusCode)");
+            params.addValue("statusCode", filter.statusCode());
+        }
+        return jdbcTemplate.query(ASSIGNED_TASKS_QUERY.formatted(having, where), params, (rs, rowNum) -> mapRow(rs));
+    }
+
+    private static AssignedTaskTo mapRow(ResultSet rs) throws SQLException {
+        long id = rs.getLong("id");
+        Long sprintId = rs.getObject("sprint_id", Long.class);
+        return new AssignedTaskTo(id, rs.getString("type_code") + '-' + id, rs.getString("title"),
+                rs.getString("status_code"), rs.getString("priority_code"),
+                new CodeTo(rs.getLong("project_id"), rs.getString("project_code")),
+                sprintId == null ? null : new CodeTo(sprintId, rs.getString("sprint_code")),
+                Arrays.asList((String[]) rs.getArray("roles").getArray()),
+                rs.getTimestamp("assigned").toLocalDateTime());
+    }
+}
@@ -5,16 +5,22 @@ import com.javarush.jira.bugtracking.sprint.Sprint;
 import com.javarush.jira.common.HasCode;
 import com.javarush.jira.common.model.TitleEntity;
 import com.javarush.jira.common.util.validation.Code;
+import com.javarush.jira.common.util.validation.NoHtml;
 import jakarta.annotation.Nullable;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.type.SqlTypes;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static com.javarush.jira.bugtracking.task.TaskUtil.checkStatusChangePossible;
@@ -61,6 +67,38 @@ public class Task extends TitleEntity implements HasCode {
     @Column(name = "sprint_id")
     private Long sprintId;
 
+    // current state of the fields below is materialized from Activity history on every change
+    @NoHtml
+    @Size(max = 4096)
+    @Nullable
+    @Column(name = "description")
+    private String description;
+
+    // link to Reference.code with RefType.PRIORITY
+    @NoHtml
+    @Size(min = 2, max = 32)
+    @Nullable
+    @Column(name = "priority_code")
+    private String priorityCode;
+
+    @Positive
+    @Nullable
+    @Column(name = "estimate")
+    private Integer estimate;
+
+    // rollups of all subtasks, maintained by native updates of the ancestors (see TaskRepository.addToAncestorRollups)
+    @Column(name = "subtask_estimate", insertable = false, updatable = false)
+    private long subtaskEstimate;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "subtask_statuses", insertable = false, updatable = false)
+    private Map<String, Integer> subtaskStatuses = Map.of();
+
+    // time of the latest activity
+    @Nullable
+    @Column(name = "updated")
+    private LocalDateTime updated;
+
     @CollectionTable(name = "task_tag",
             joinColumns = @JoinColumn(name = "task_id"),
             uniqueConstraints = @UniqueConstraint(columnNames = {"task_id", "tag"}, name = "uk_task_tag"))
@@ -88,6 +126,19 @@ public class Task extends TitleEntity implements HasCode {
         this.statusCode = statusCode;
     }
 
+    public void applyActivity(Activity activity) {
+        if (activity.getDescription() != null) {
+            this.description = activity.getDescription();
+        }
+        if (activity.getPriorityCode() != null) {
+            this.priorityCode = activity.getPriorityCode();
+        }
+        if (activity.getEstimate() != null) {
+            this.estimate = activity.getEstimate();
+        }
+        this.updated = activity.getUpdated();
+    }
+
     @Override
     public String getCode() {
         return typeCode + '-' + id;
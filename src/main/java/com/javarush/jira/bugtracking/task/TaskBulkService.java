@@ -0,0 +1,273 @@
+package com.javarush.jira.bugtracking.task;
+
+import com.javarush.jira.bugtracking.AssignmentChangedEvent;
+import com.javarush.jira.bugtracking.ChangeVersionRepository;
+import com.javarush.jira.bugtracking.UserBelong;
+import com.javarush.jira.bugtracking.UserBelongRepository;
+import com.javarush.jira.bugtracking.sprint.Sprint;
+import com.javarush.jira.bugtracking.sprint.SprintRepository;
+import com.javarush.jira.bugtracking.task.to.TaskBulkResultTo;
+import com.javarush.jira.bugtracking.task.to.TaskBulkTo;
+import com.javarush.jira.bugtracking.task.to.TaskBulkTo.Operation;
+import com.javarush.jira.bugtracking.task.to.TaskRollupTo;
+import com.javarush.jira.common.error.AppException;
+import com.javarush.jira.common.error.DataConflictException;
+import com.javarush.jira.common.error.IllegalRequestDataException;
+import com.javarush.jira.common.error.NotFoundException;
+import com.javarush.jira.login.AuthUser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.javarush.jira.bugtracking.ObjectType.TASK;
+import static com.javarush.jira.bugtracking.task.TaskService.CANNOT_ASSIGN;
+import static com.javarush.jira.bugtracking.task.TaskService.CANNOT_UN_ASSIGN;
+import static com.javarush.jira.bugtracking.task.TaskUtil.checkStatusChangePossible;
+import static com.javarush.jira.bugtracking.task.TaskUtil.ownRollup;
+import static com.javarush.jira.bugtracking.task.TaskUtil.rollupDelta;
+import static com.javarush.jira.ref.ReferenceService.getStatusTransitions;
+
+/**
+ * Applies operations to many tasks in one transaction:
+ * tasks, sprints and active assignments are read by one query each, validation runs in memory,
+ * activity and user_belong changes are written by JDBC batches.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskBulkService {
+    private static final String INSERT_ACTIVITY = "INSERT INTO activity (author_id, task_id, updated, status_code) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_USER_BELONG =
+            "INSERT INTO user_belong (object_id, object_type, user_id, user_type_code, startpoint) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (object_id, object_type, user_id, user_type_code) WHERE endpoint IS NULL DO NOTHING";
+    private static final String END_USER_BELONG = """
+            UPDATE user_belong SET endpoint = ?
+             WHERE object_id = ? AND object_type = ? AND user_id = ? AND user_type_code = ? AND endpoint IS NULL
+            """;
+
+    private final TaskRepository taskRepository;
+    private final SprintRepository sprintRepository;
+    private final UserBelongRepository userBelongRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeVersionRepository versionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public List<TaskBulkResultTo> apply(TaskBulkTo bulkTo) {
+        bulkTo.operations().forEach(TaskBulkService::checkOperation);
+        List<Long> taskIds = bulkTo.taskIds().stream().distinct().toList();
+        long userId = AuthUser.authId();
+        log.info("apply {} operations to {} tasks by user {}", bulkTo.operations().size(), taskIds.size(), userId);
+
+        Map<Long, Task> tasks = taskRepository.findAllById(taskIds).stream()
+                .collect(Collectors.toMap(Task::id, Function.identity()));
+        Set<Long> sprintIds = bulkTo.operations().stream()
+                .map(Operation::sprintId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Sprint> sprints = sprintIds.isEmpty() ? Map.of() : sprintRepository.findAllById(sprintIds).stream()
+                .collect(Collectors.toMap(Sprint::id, Function.identity()));
+        Map<Long, Set<String>> activeUserTypes = new HashMap<>();
+        for (UserBelong belong : userBelongRepository.findActiveAssignments(taskIds, TASK, userId)) {
+            activeUserTypes.computeIfAbsent(belong.getObjectId(), id -> new HashSet<>()).add(belong.getUserTypeCode());
+        }
+
+        Batch batch = new Batch(userId, LocalDateTime.now());
+        List<TaskBulkResultTo> results = new ArrayList<>(taskIds.size());
+        for (long taskId : taskIds) {
+            Task task = tasks.get(taskId);
+            try {
+                if (task == null) {
+                    throw new NotFoundException("Entity with id=" + taskId + " not found");
+                }
+                TaskChange change = new TaskChange(task, activeUserTypes.getOrDefault(taskId, Set.of()));
+                bulkTo.operations().forEach(operation -> change.apply(operation, sprints));
+                change.commit(batch);
+                results.add(new TaskBulkResultTo(taskId, true, null));
+            } catch (AppException e) {
+                results.add(new TaskBulkResultTo(taskId, false, e.getMessage()));
+            }
+        }
+        batch.write();
+        return results;
+    }
+
+    private static void checkOperation(Operation operation) {
+        boolean valid = switch (operation.type()) {
+            case CHANGE_STATUS -> operation.statusCode() != null;
+            case CHANGE_SPRINT -> true;
+            case ASSIGN, UNASSIGN -> operation.userType() != null;
+            case ENABLE -> operation.enabled() != null;
+        };
+        if (!valid) {
+            throw new IllegalRequestDataException("Operation " + operation.type() + " has no required value");
+        }
+    }
+
+    // changes of one task, applied to the entity and batch only when all operations are valid
+    private static class TaskChange {
+        private final Task task;
+        private final Set<String> activeUserTypes;
+        private final Set<String> assigned = new LinkedHashSet<>();
+        private final Set<String> unassigned = new LinkedHashSet<>();
+        private final List<String> statusChanges = new ArrayList<>();
+        private String statusCode;
+        private Long sprintId;
+        private boolean sprintChanged;
+        private Boolean enabled;
+
+        TaskChange(Task task, Set<String> activeUserTypes) {
+            this.task = task;
+            this.activeUserTypes = new HashSet<>(activeUserTypes);
+            this.statusCode = task.getStatusCode();
+            this.sprintId = task.getSprintId();
+        }
+
+        void apply(Operation operation, Map<Long, Sprint> sprints) {
+            switch (operation.type()) {
+                case CHANGE_STATUS -> changeStatus(operation.statusCode());
+                case CHANGE_SPRINT -> changeSprint(operation.sprintId(), sprints);
+                case ASSIGN -> assign(operation.userType());
+                case UNASSIGN -> unAssign(operation.userType());
+                case ENABLE -> enabled = operation.enabled();
+            }
+        }
+
+        private void changeStatus(String newStatusCode) {
+            if (!newStatusCode.equals(statusCode)) {
+                checkStatusChangePossible(statusCode, newStatusCode);
+                statusCode = newStatusCode;
+                statusChanges.add(newStatusCode);
+                String userType = getStatusTransitions().getUserType(newStatusCode);
+                if (userType != null) {
+                    addAssignment(userType);
+                }
+            }
+        }
+
+        private void changeSprint(Long newSprintId, Map<Long, Sprint> sprints) {
+            if (task.getParentId() != null) {
+                throw new DataConflictException("Can't change subtask sprint");
+            }
+            if (newSprintId != null) {
+                Sprint sprint = sprints.get(newSprintId);
+                if (sprint == null) {
+                    throw new NotFoundException("Entity with id=" + newSprintId + " not found");
+                }
+                if (sprint.getProjectId() != task.getProjectId()) {
+                    throw new DataConflictException("Target sprint must belong to the same project");
+                }
+            }
+            sprintId = newSprintId;
+            sprintChanged = true;
+        }
+
+        private void assign(String userType) {
+            checkAssignmentActionPossible(userType, true);
+            addAssignment(userType);
+        }
+
+        private void unAssign(String userType) {
+            checkAssignmentActionPossible(userType, false);
+            if (!activeUserTypes.remove(userType)) {
+                throw new NotFoundException(String.format("Not found assignment with userType=%s for task {%d} for user {%d}",
+                        userType, task.id(), AuthUser.authId()));
+            }
+            if (!assigned.remove(userType)) {
+                unassigned.add(userType);
+            }
+        }
+
+        private void addAssignment(String userType) {
+            if (activeUserTypes.add(userType)) {
+                assigned.add(userType);
+            }
+        }
+
+        private void checkAssignmentActionPossible(String userType, boolean assign) {
+            String possibleUserType = getStatusTransitions().getUserType(statusCode);
+            if (!userType.equals(possibleUserType)) {
+                throw new DataConflictException(String.format(assign ? CANNOT_ASSIGN : CANNOT_UN_ASSIGN, userType, statusCode));
+            }
+        }
+
+        void commit(Batch batch) {
+            if (!statusChanges.isEmpty() || enabled != null || sprintChanged) {
+                batch.changedSprints.add(task.getSprintId());
+            }
+            TaskRollupTo before = ownRollup(task);
+            task.setStatusCode(statusCode);
+            batch.rollups.put(task, rollupDelta(ownRollup(task), before));
+            if (!statusChanges.isEmpty()) {
+                task.setUpdated(batch.now);
+                statusChanges.forEach(status -> batch.activities.add(new Object[]{batch.userId, task.id(), batch.timestamp, status}));
+            }
+            if (enabled != null) {
+                task.setEnabled(enabled);
+            }
+            if (sprintChanged) {
+                task.setSprintId(sprintId);
+                batch.changedSprints.add(sprintId);
+                batch.sprintMoves.computeIfAbsent(sprintId, id -> new ArrayList<>()).add(task.id());
+            }
+            if (!assigned.isEmpty() || !unassigned.isEmpty()) {
+                batch.assignmentChanges.add(task.id());
+                batch.changedSprints.add(task.getSprintId());
+            }
+            assigned.forEach(userType -> batch.assignments.add(new Object[]{task.id(), TASK.ordinal(), batch.userId, userType, batch.timestamp}));
+            unassigned.forEach(userType -> batch.unAssignments.add(new Object[]{batch.timestamp, task.id(), TASK.ordinal(), batch.userId, userType}));
+        }
+    }
+
+    private class Batch {
+        private final long userId;
+        private final LocalDateTime now;
+        private final Timestamp timestamp;
+        private final List<Object[]> activities = new ArrayList<>();
+        private final List<Object[]> assignments = new ArrayList<>();
+        private final List<Object[]> unAssignments = new ArrayList<>();
+        // target sprint (null for backlog) -> moved tasks
+        private final Map<Long, List<Long>> sprintMoves = new HashMap<>();
+        private final Map<Task, TaskRollupTo> rollups = new LinkedHashMap<>();
+        // sprints whose task lists changed, null for the backlog
+        private final Set<Long> changedSprints = new HashSet<>();
+        private final Set<Long> assignmentChanges = new HashSet<>();
+
+        Batch(long userId, LocalDateTime now) {
+            this.userId = userId;
+            this.now = now;
+            this.timestamp = Timestamp.valueOf(now);
+        }
+
+        void write() {
+            // entity changes first: native statements below must not be overwritten by a later flush
+            taskRepository.flush();
+            sprintMoves.forEach((sprintId, taskIds) -> taskRepository.setTasksAndSubTasksSprint(taskIds, sprintId));
+            rollups.forEach(taskRepository::addToAncestorRollups);
+            versionRepository.bumpSprints(changedSprints);
+            if (!activities.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_ACTIVITY, activities);
+            }
+            if (!unAssignments.isEmpty()) {
+                int[] ended = jdbcTemplate.batchUpdate(END_USER_BELONG, unAssignments);
+                // validated by the assignments read at the start: 0 only when a concurrent request ended it already
+                for (int i = 0; i < ended.length; i++) {
+                    if (ended[i] == 0) {
+                        log.warn("assignment {} was ended concurrently", Arrays.toString(unAssignments.get(i)));
+                    }
+                }
+            }
+            if (!assignments.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_USER_BELONG, assignments);
+            }
+            assignmentChanges.forEach(taskId -> eventPublisher.publishEvent(new AssignmentChangedEvent(TASK, taskId)));
+        }
+    }
+}
@@ -1,28 +1,43 @@
 package com.javarush.jira.bugtracking.task;
 
+import com.javarush.jira.bugtracking.ChangeVersionRepository;
 import com.javarush.jira.bugtracking.Handlers;
 import com.javarush.jira.bugtracking.UserBelong;
 import com.javarush.jira.bugtracking.UserBelongRepository;
 import com.javarush.jira.bugtracking.task.to.ActivityTo;
+import com.javarush.jira.bugtracking.task.to.AssignedTaskFilter;
+import com.javarush.jira.bugtracking.task.to.AssignedTaskTo;
+import com.javarush.jira.bugtracking.task.to.TaskBulkResultTo;
+import com.javarush.jira.bugtracking.task.to.TaskBulkTo;
+import com.javarush.jira.bugtracking.task.to.TaskFilter;
+import com.javarush.jira.bugtracking.task.to.TaskImportResultTo;
 import com.javarush.jira.bugtracking.task.to.TaskTo;
 import com.javarush.jira.bugtracking.task.to.TaskToExt;
 import com.javarush.jira.bugtracking.task.to.TaskToFull;
-import com.javarush.jira.bugtracking.tree.ITreeNode;
+import com.javarush.jira.common.error.NotFoundException;
+import com.javarush.jira.common.to.PageTo;
+import com.javarush.jira.common.util.Forest;
 import com.javarush.jira.common.util.Util;
 import com.javarush.jira.login.AuthUser;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.annotation.Nullable;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
 
 import static com.javarush.jira.common.BaseHandler.createdResponse;
@@ -34,48 +49,86 @@ import static com.javarush.jira.common.BaseHandler.createdResponse;
 public class TaskController {
 
     public static final String REST_URL = "/api/tasks";
+    static final String TEXT_CSV_VALUE = "text/csv";
+    //  large projects take longer to stream than the default async timeout
+    static final Duration EXPORT_TIMEOUT = Duration.ofMinutes(10);
 
     private final TaskService taskService;
     private final ActivityService activityService;
+    private final TaskBulkService taskBulkService;
+    private final TaskExportService taskExportService;
+    private final TaskImportService taskImportService;
+    private final TaskListService taskListService;
     private final Handlers.TaskHandler handler;
-    private final Handlers.ActivityHandler activityHandler;
     private final UserBelongRepository userBelongRepository;
+    private final ChangeVersionRepository versionRepository;
 
 
     @GetMapping("/{id}")
     @Operation(
             summary = "Отримати задачу за ID",
-            description = "Повертає повну інформацію про задачу з вказаним ID"
+            description = "Повертає повну інформацію про задачу з вказаним ID. activityTos - перша сторінка історії змін " +
+                    "без коментарів (решта - /{id}/activities за курсором activitiesNext), коментарі - /{id}/comments"
     )
     public TaskToFull get(@PathVariable long id) {
         log.info("get task by id={}", id);
         return taskService.get(id);
     }
 
+    @GetMapping("/{id}/subtree")
+    @Operation(
+            summary = "Отримати піддерево задачі",
+            description = "Повертає задачу та всіх її нащадків (батьківські задачі перед дочірніми) одним запитом за шляхом в ієрархії"
+    )
+    public List<TaskTo> getSubtree(@PathVariable long id) {
+        log.info("get subtree of task with id={}", id);
+        List<Task> subtree = handler.getRepository().findSubtree(id);
+        if (subtree.isEmpty()) {
+            throw new NotFoundException("Not found task with id=" + id);
+        }
+        return handler.getMapper().toToList(subtree);
+    }
+
+    @GetMapping("/{id}/ancestors")
+    @Operation(
+            summary = "Отримати предків задачі",
+            description = "Повертає батьківські задачі від кореневої до безпосереднього батька"
+    )
+    public List<TaskTo> getAncestors(@PathVariable long id) {
+        log.info("get ancestors of task with id={}", id);
+        handler.getRepository().getExisted(id);
+        return handler.getMapper().toToList(handler.getRepository().findAncestors(id));
+    }
+
     @GetMapping("/by-sprint")
     @Operation(
             summary = "Отримати задачі по спринту",
             description = "Повертає всі задачі, що належать до вказаного спринту"
     )
-    public List<TaskTo> getAllBySprint(@RequestParam long sprintId) {
+    public List<TaskTo> getAllBySprint(@RequestParam long sprintId, ServletWebRequest request) {
         log.info("get all for sprint {}", sprintId);
+        if (Util.checkNotModified(versionRepository.getSprintETag(sprintId), request)) {
+            return null;
+        }
         return sortTasksAsTree(handler.getMapper().toToList(handler.getRepository().findAllBySprintId(sprintId)));
     }
 
+    @GetMapping("/by-sprint/page")
+    @Operation(
+            summary = "Отримати сторінку задач спринту",
+            description = "Повертає сторінку задач спринту за курсором next; підзадачі завжди на одній сторінці зі своєю " +
+                    "кореневою задачею, size рахує кореневі задачі. total=true додає кількість задач (оцінку для великих спринтів)"
+    )
+    public PageTo<TaskTo> getPageBySprint(@RequestParam long sprintId, @Nullable @RequestParam(required = false) String cursor,
+                                          @Nullable @RequestParam(required = false) Integer size,
+                                          @RequestParam(defaultValue = "false") boolean total) {
+        log.info("get page for sprint {}, cursor={}", sprintId, cursor);
+        return taskListService.getTreePageBySprint(sprintId, cursor, size, total,
+                tasks -> sortTasksAsTree(handler.getMapper().toToList(tasks)));
+    }
+
     private List<TaskTo> sortTasksAsTree(List<TaskTo> tasks) {
-        List<TaskTreeNode> roots = Util.makeTree(tasks, TaskTreeNode::new);
-        List<TaskTo> sortedTasks = new ArrayList<>();
-        roots.forEach(root -> {
-            sortedTasks.add(root.taskTo);
-            List<TaskTreeNode> subNodes = root.subNodes();
-            LinkedList<TaskTreeNode> stack = new LinkedList<>(subNodes);
-            while (!stack.isEmpty()) {
-                TaskTreeNode node = stack.poll();
-                sortedTasks.add(node.taskTo);
-                node.subNodes().forEach(stack::addFirst);
-            }
-        });
-        return sortedTasks;
+        return Forest.of(tasks).preOrder();
     }
 
     @GetMapping("/by-project")
@@ -88,6 +141,69 @@ public class TaskController {
         return handler.getMapper().toToList(handler.getRepository().findAllByProjectId(projectId));
     }
 
+    @GetMapping("/by-project/page")
+    @Operation(
+            summary = "Отримати сторінку задач проєкту",
+            description = "Повертає сторінку задач проєкту від найновіших за курсором next; " +
+                    "total=true додає кількість задач (оцінку для великих проєктів)"
+    )
+    public PageTo<TaskTo> getPageByProject(@RequestParam long projectId, @Nullable @RequestParam(required = false) String cursor,
+                                           @Nullable @RequestParam(required = false) Integer size,
+                                           @RequestParam(defaultValue = "false") boolean total) {
+        log.info("get page for project {}, cursor={}", projectId, cursor);
+        return taskListService.getPageByProject(projectId, cursor, size, total, handler.getMapper()::toToList);
+    }
+
+    @GetMapping("/search")
+    @Operation(
+            summary = "Пошук задач",
+            description = "Фільтрує задачі за будь-якою комбінацією проєкту, спринту, батьківської задачі, статусів, типів, " +
+                    "пріоритетів, тегу, виконавця (assigneeId, assigneeType) та періодів створення/оновлення; " +
+                    "потрібен хоча б один з projectId, sprintId, assigneeId. Сортування за CREATED або UPDATED, сторінки - за курсором next"
+    )
+    public PageTo<TaskTo> search(TaskFilter filter,
+                                 @RequestParam(defaultValue = "CREATED") TaskSearchRepository.SortBy sort,
+                                 @RequestParam(defaultValue = "DESC") Sort.Direction direction,
+                                 @Nullable @RequestParam(required = false) String cursor,
+                                 @Nullable @RequestParam(required = false) Integer size) {
+        log.info("search tasks by {}, sort {} {}, cursor={}", filter, sort, direction, cursor);
+        return taskListService.search(filter, sort, direction, cursor, size, handler.getMapper()::toToList);
+    }
+
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    @Operation(
+            summary = "Експорт задач проєкту",
+            description = "Потоково вивантажує всі задачі проєкту у форматі NDJSON або CSV; " +
+                    "extended додає опис, пріоритет, оцінку, час оновлення та теги"
+    )
+    public WebAsyncTask<Void> export(@RequestParam long projectId,
+                                     @RequestParam(defaultValue = "NDJSON") TaskExportService.Format format,
+                                     @RequestParam(defaultValue = "false") boolean extended,
+                                     HttpServletResponse response) {
+        log.info("export tasks for project {} as {}", projectId, format);
+        boolean csv = format == TaskExportService.Format.CSV;
+        response.setContentType(csv ? TEXT_CSV_VALUE : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("project-" + projectId + "-tasks." + (csv ? "csv" : "ndjson")).build().toString());
+        return new WebAsyncTask<>(EXPORT_TIMEOUT.toMillis(), () -> {
+            taskExportService.export(projectId, format, extended, response.getOutputStream());
+            return null;
+        });
+    }
+
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    @Operation(
+            summary = "Імпорт задач у проєкт",
+            description = "Масово створює задачі з NDJSON або CSV (ref/parentRef для підзадач, теги, коментар); " +
+                    "некоректні рядки пропускаються; rejected - їх кількість, у звіті перші 100 з номером рядка"
+    )
+    public TaskImportResultTo importTasks(@RequestParam long projectId,
+                                          @RequestParam(defaultValue = "NDJSON") TaskExportService.Format format,
+                                          InputStream body) {
+        log.info("import tasks to project {} as {}", projectId, format);
+        return taskImportService.importTasks(projectId, format, body);
+    }
+
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.CREATED)
     @Operation(
@@ -140,6 +256,43 @@ public class TaskController {
         taskService.changeSprint(id, sprintId);
     }
 
+    @PatchMapping("/{id}/move")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(
+            summary = "Перемістити задачу з підзадачами",
+            description = "Переносить задачу разом з усім піддеревом під іншу батьківську задачу (у її спринт) " +
+                    "або робить кореневою у спринті sprintId чи беклозі одним запитом; переміщення у власне піддерево заборонене"
+    )
+    public void move(@PathVariable long id, @Nullable @RequestParam(required = false) Long parentId,
+                     @Nullable @RequestParam(required = false) Long sprintId) {
+        log.info("move task(id={}) to parent {}, sprint {}", id, parentId, sprintId);
+        taskService.move(id, parentId, sprintId);
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Масові операції над задачами",
+            description = "Застосовує список операцій (зміна статусу, спринту, призначення, активація) до кількох задач " +
+                    "в одній транзакції та повертає результат для кожної задачі"
+    )
+    public List<TaskBulkResultTo> bulk(@Valid @RequestBody TaskBulkTo bulkTo) {
+        log.info("bulk {} for tasks {}", bulkTo.operations(), bulkTo.taskIds());
+        return taskBulkService.apply(bulkTo);
+    }
+
+    @GetMapping("/assigned")
+    @Operation(
+            summary = "Отримати мої задачі",
+            description = "Повертає задачі з активними призначеннями поточного користувача в усіх проєктах і спринтах " +
+                    "з його ролями; фільтри projectId, sprintId, statusCode, userType. Сортування від останнього призначення, " +
+                    "сторінки - за курсором next"
+    )
+    public PageTo<AssignedTaskTo> getAssigned(AssignedTaskFilter filter, @Nullable @RequestParam(required = false) String cursor,
+                                              @Nullable @RequestParam(required = false) Integer size) {
+        log.info("get tasks assigned to user {} by {}, cursor={}", AuthUser.authId(), filter, cursor);
+        return taskListService.getAssigned(AuthUser.authId(), filter, cursor, size);
+    }
+
     @GetMapping("/assignments/by-sprint")
     @Operation(
             summary = "Отримати призначення задач по спринту",
@@ -175,11 +328,23 @@ public class TaskController {
     @GetMapping("/{id}/comments")
     @Operation(
             summary = "Отримати коментарі до задачі",
-            description = "Повертає список коментарів, пов'язаних із задачою"
+            description = "Повертає сторінку коментарів задачі, від найновіших; наступна сторінка - за курсором next"
     )
-    public List<ActivityTo> getComments(@PathVariable long id) {
-        log.info("get comments for task with id={}", id);
-        return activityHandler.getMapper().toToList(activityHandler.getRepository().findAllComments(id));
+    public PageTo<ActivityTo> getComments(@PathVariable long id, @Nullable @RequestParam(required = false) String cursor,
+                                          @Nullable @RequestParam(required = false) Integer size) {
+        log.info("get comments for task with id={}, cursor={}", id, cursor);
+        return activityService.getComments(id, cursor, size);
+    }
+
+    @GetMapping("/{id}/activities")
+    @Operation(
+            summary = "Отримати історію змін задачі",
+            description = "Повертає сторінку історії змін задачі, від найновіших; наступна сторінка - за курсором next"
+    )
+    public PageTo<ActivityTo> getActivities(@PathVariable long id, @Nullable @RequestParam(required = false) String cursor,
+                                            @Nullable @RequestParam(required = false) Integer size) {
+        log.info("get activities for task with id={}, cursor={}", id, cursor);
+        return activityService.getHistory(id, cursor, size);
     }
 
     @PostMapping(value = "/activities", consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -211,10 +376,4 @@ public class TaskController {
     public void delete(@PathVariable long id) {
         activityService.delete(id);
     }
-
-    private record TaskTreeNode(TaskTo taskTo, List<TaskTreeNode> subNodes) implements ITreeNode<TaskTo, TaskTreeNode> {
-        public TaskTreeNode(TaskTo taskTo) {
-            this(taskTo, new LinkedList<>());
-        }
-    }
 }
@@ -0,0 +1,217 @@
+package com.javarush.jira.bugtracking.task;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Export of project tasks with constant memory: rows are read by a forward-only cursor
+ * (fetch size inside a read-only transaction) and written to the output one by one.
+ */
+@Slf4j
+@Service
+public class TaskExportService {
+    static final int FETCH_SIZE = 1000;
+
+    private static final List<String> COLUMNS = List.of("id", "code", "title", "typeCode", "statusCode", "parentId", "projectId", "sprintId", "startpoint");
+    private static final List<String> EXTENDED_COLUMNS = List.of("description", "priorityCode", "estimate", "updated", "tags");
+
+    private static final String EXPORT_QUERY = """
+            SELECT t.id, t.title, t.type_code, t.status_code, t.parent_id, t.project_id, t.sprint_id, t.startpoint
+              FROM task t WHERE t.project_id = ? ORDER BY t.id
+            """;
+    private static final String EXTENDED_EXPORT_QUERY = """
+            SELECT t.id, t.title, t.type_code, t.status_code, t.parent_id, t.project_id, t.sprint_id, t.startpoint,
+                   t.description, t.priority_code, t.estimate, t.updated,
+                   (SELECT array_agg(tt.tag ORDER BY tt.tag) FROM task_tag tt WHERE tt.task_id = t.id) AS tags
+              FROM task t WHERE t.project_id = ? ORDER BY t.id
+            """;
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public TaskExportService(DataSource dataSource, PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(long projectId, Format format, boolean extended, OutputStream out) throws IOException {
+        log.info("export tasks of project {} as {}, extended={}", projectId, format, extended);
+        RowWriter writer = format == Format.CSV ? new CsvWriter(out, extended) : new NdjsonWriter(out, extended);
+        // Postgres driver uses the cursor (fetch size) only with autocommit off, i.e. inside a transaction
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.query(extended ? EXTENDED_EXPORT_QUERY : EXPORT_QUERY, rs -> {
+                    try {
+                        writer.write(rs);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, projectId));
+        writer.finish();
+    }
+
+    private static String code(ResultSet rs) throws SQLException {
+        return rs.getString("type_code") + '-' + rs.getLong("id");
+    }
+
+    private static String timestamp(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp == null ? null : timestamp.toLocalDateTime().toString();
+    }
+
+    private static String[] tags(ResultSet rs) throws SQLException {
+        Array tags = rs.getArray("tags");
+        return tags == null ? new String[0] : (String[]) tags.getArray();
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private class NdjsonWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final boolean extended;
+        private boolean empty = true;
+
+        NdjsonWriter(OutputStream out, boolean extended) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.setRootValueSeparator(new SerializedString("\n"));
+            this.extended = extended;
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            empty = false;
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong("id"));
+            generator.writeStringField("code", code(rs));
+            generator.writeStringField("title", rs.getString("title"));
+            generator.writeStringField("typeCode", rs.getString("type_code"));
+            generator.writeStringField("statusCode", rs.getString("status_code"));
+            writeNumber("parentId", rs.getObject("parent_id", Long.class));
+            generator.writeNumberField("projectId", rs.getLong("project_id"));
+            writeNumber("sprintId", rs.getObject("sprint_id", Long.class));
+            generator.writeStringField("startpoint", timestamp(rs, "startpoint"));
+            if (extended) {
+                generator.writeStringField("description", rs.getString("description"));
+                generator.writeStringField("priorityCode", rs.getString("priority_code"));
+                Integer estimate = rs.getObject("estimate", Integer.class);
+                if (estimate == null) {
+                    generator.writeNullField("estimate");
+                } else {
+                    generator.writeNumberField("estimate", estimate);
+                }
+                generator.writeStringField("updated", timestamp(rs, "updated"));
+                generator.writeArrayFieldStart("tags");
+                for (String tag : tags(rs)) {
+                    generator.writeString(tag);
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+        }
+
+        private void writeNumber(String field, Long value) throws IOException {
+            if (value == null) {
+                generator.writeNullField(field);
+            } else {
+                generator.writeNumberField(field, value);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!empty) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+
+    private static class CsvWriter implements RowWriter {
+        private final Writer writer;
+        private final boolean extended;
+
+        CsvWriter(OutputStream out, boolean extended) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
+            this.extended = extended;
+            writer.write(String.join(",", COLUMNS));
+            if (extended) {
+                writer.write(',');
+                writer.write(String.join(",", EXTENDED_COLUMNS));
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            writer.write(rs.getString("id"));
+            writeValue(code(rs));
+            writeValue(rs.getString("title"));
+            writeValue(rs.getString("type_code"));
+            writeValue(rs.getString("status_code"));
+            writeValue(rs.getString("parent_id"));
+            writeValue(rs.getString("project_id"));
+            writeValue(rs.getString("sprint_id"));
+            writeValue(timestamp(rs, "startpoint"));
+            if (extended) {
+                writeValue(rs.getString("description"));
+                writeValue(rs.getString("priority_code"));
+                writeValue(rs.getString("estimate"));
+                writeValue(timestamp(rs, "updated"));
+                writeValue(tagsValue(tags(rs)));
+            }
+            writer.write('\n');
+        }
+
+        private void writeValue(String value) throws IOException {
+            writer.write(',');
+            if (value != null) {
+                writer.write(quote(value));
+            }
+        }
+
+        //  tags are a CSV record inside the field: a tag with a comma or quote is quoted, not split on import
+        private static String tagsValue(String[] tags) {
+            return tags.length == 0 ? null : Arrays.stream(tags).map(CsvWriter::quote).collect(Collectors.joining(","));
+        }
+
+        private static String quote(String value) {
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package com.javarush.jira.bugtracking.task;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javarush.jira.bugtracking.ChangeVersionRepository;
+import com.javarush.jira.bugtracking.ObjectType;
+import com.javarush.jira.bugtracking.project.ProjectRepository;
+import com.javarush.jira.bugtracking.task.TaskExportService.Format;
+import com.javarush.jira.bugtracking.task.to.TaskImportResultTo;
+import com.javarush.jira.bugtracking.task.to.TaskImportResultTo.RowError;
+import com.javarush.jira.common.error.IllegalRequestDataException;
+import com.javarush.jira.login.AuthUser;
+import com.javarush.jira.ref.RefType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.safety.Safelist;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static com.javarush.jira.ref.ReferenceService.getRefs;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Bulk import of project tasks. Rows are validated while the input is read and streamed
+ * with COPY into a transaction-scoped staging table, then merged with a few set-based statements.
+ * Rows referencing each other by <code>ref</code>/<code>parentRef</code> may come in any order.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskImportService {
+    static final String DEFAULT_STATUS = "todo";
+    static final int MAX_REF_LENGTH = 64;
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    // staging columns, in COPY order
+    private static final String[] COLUMNS = {"row_num", "ref", "parent_ref", "parent_id", "title", "type_code", "status_code",
+            "sprint_id", "description", "priority_code", "estimate", "tags", "comment"};
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE task_import (
+                row_num       bigint        not null,
+                ref           varchar(64),
+                parent_ref    varchar(64),
+                parent_id     bigint,
+                title         varchar(1024) not null,
+                type_code     varchar(32)   not null,
+                status_code   varchar(32)   not null,
+                sprint_id     bigint,
+                description   varchar(4096),
+                priority_code varchar(32),
+                estimate      integer,
+                tags          varchar(32)[],
+                comment       varchar(4096),
+                id            bigint,
+                path          bigint[]
+            ) ON COMMIT DROP
+            """;
+    private static final String COPY_STAGING = "COPY task_import (" + String.join(", ", COLUMNS) + ") FROM STDIN (FORMAT csv)";
+
+    private static final String REJECT_DUPLICATE_REFS = """
+            DELETE FROM task_import i
+             WHERE i.ref IS NOT NULL AND EXISTS (SELECT 1 FROM task_import d WHERE d.ref = i.ref AND d.row_num < i.row_num)
+            RETURNING i.row_num, 'Duplicate ref ''' || i.ref || ''''
+            """;
+    private static final String REJECT_UNKNOWN_SPRINTS = """
+            DELETE FROM task_import i
+             WHERE i.sprint_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM sprint s WHERE s.id = i.sprint_id AND s.project_id = ?)
+            RETURNING i.row_num, 'Sprint ' || i.sprint_id || ' not found in the project'
+            """;
+    private static final String REJECT_UNKNOWN_PARENTS = """
+            DELETE FROM task_import i
+             WHERE i.parent_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM task t WHERE t.id = i.parent_id AND t.project_id = ?)
+            RETURNING i.row_num, 'Parent task ' || i.parent_id || ' not found in the project'
+            """;
+    // rows not reachable from a root: parent row is missing, rejected or parents form a cycle
+    private static final String REJECT_UNREACHABLE = """
+            DELETE FROM task_import i
+             WHERE i.row_num NOT IN (
+                   WITH RECURSIVE reachable AS (
+                       SELECT row_num, ref FROM task_import WHERE parent_ref IS NULL
+                        UNION
+                       SELECT c.row_num, c.ref FROM task_import c JOIN reachable r ON c.parent_ref = r.ref)
+                   SELECT row_num FROM reachable)
+            RETURNING i.row_num, 'Parent row ''' || i.parent_ref || ''' is not found, rejected or cyclic'
+            """;
+
+    private static final String ALLOCATE_IDS = "UPDATE task_import SET id = nextval(pg_get_serial_sequence('task', 'id'))";
+    // rows are already reachable from the roots, see REJECT_UNREACHABLE
+    private static final String BUILD_PATHS = """
+            WITH RECURSIVE paths AS (
+                SELECT i.row_num, i.ref, coalesce(t.path, '{}') || i.id AS path
+                  FROM task_import i LEFT JOIN task t ON t.id = i.parent_id
+                 WHERE i.parent_ref IS NULL
+                 UNION ALL
+                SELECT c.row_num, c.ref, p.path || c.id
+                  FROM task_import c JOIN paths p ON c.parent_ref = p.ref)
+            UPDATE task_import i SET path = p.path FROM paths p WHERE p.row_num = i.row_num
+            """;
+    private static final String INSERT_TASKS = """
+            INSERT INTO task (id, title, type_code, status_code, project_id, sprint_id, parent_id, path, startpoint,
+                              description, priority_code, estimate, updated)
+            SELECT i.id, i.title, i.type_code, i.status_code, ?, i.sprint_id, coalesce(p.id, i.parent_id), i.path, ?,
+                   i.description, i.priority_code, i.estimate, ?
+              FROM task_import i LEFT JOIN task_import p ON p.ref = i.parent_ref
+            """;
+    private static final String INSERT_ACTIVITIES = """
+            INSERT INTO activity (author_id, task_id, updated, title, description, estimate, type_code, status_code, priority_code)
+            SELECT ?, i.id, ?, i.title, i.description, i.estimate, i.type_code, i.status_code, i.priority_code FROM task_import i
+            """;
+    private static final String INSERT_COMMENTS = """
+            INSERT INTO activity (author_id, task_id, updated, comment)
+            SELECT ?, i.id, ?, i.comment FROM task_import i WHERE i.comment IS NOT NULL
+            """;
+    private static final String INSERT_TAGS = """
+            INSERT INTO task_tag (task_id, tag)
+            SELECT i.id, t.tag FROM task_import i CROSS JOIN unnest(i.tags) AS t(tag)
+            """;
+    private static final String INSERT_AUTHORS = """
+            INSERT INTO user_belong (object_id, object_type, user_id, user_type_code, startpoint)
+            SELECT i.id, ?, ?, 'task_author', ? FROM task_import i
+            """;
+    // rollups of the trees that got imported tasks are recalculated as a whole
+    private static final String RECALCULATE_ROLLUPS = """
+            UPDATE task t SET subtask_estimate = r.estimate, subtask_statuses = r.statuses
+            FROM (SELECT s.ancestor_id, sum(s.estimate) AS estimate, jsonb_object_agg(s.status_code, s.count) AS statuses
+                  FROM (SELECT a.ancestor_id, d.status_code, coalesce(sum(d.estimate), 0) AS estimate, count(*) AS count
+                        FROM task d CROSS JOIN unnest(d.path) AS a(ancestor_id)
+                        WHERE d.path[1] IN (SELECT path[1] FROM task_import) AND a.ancestor_id <> d.id
+                        GROUP BY a.ancestor_id, d.status_code) s
+                  GROUP BY s.ancestor_id) r
+            WHERE t.id = r.ancestor_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeVersionRepository versionRepository;
+    private final ProjectRepository projectRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional
+    public TaskImportResultTo importTasks(long projectId, Format format, InputStream in) {
+        log.info("import tasks to project {} as {}", projectId, format);
+        projectRepository.getExisted(projectId);
+        RowErrors errors = new RowErrors();
+        jdbcTemplate.execute(CREATE_STAGING);
+        long staged = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            PGCopyOutputStream copy = new PGCopyOutputStream(connection.unwrap(PGConnection.class), COPY_STAGING);
+            try {
+                RowValidator validator = new RowValidator(errors);
+                Writer writer = new BufferedWriter(new OutputStreamWriter(copy, UTF_8));
+                RowReader reader = format == Format.CSV ? new CsvRowReader(in) : new NdjsonRowReader(in);
+                for (Row row; (row = reader.next()) != null; ) {
+                    String[] values = validator.validate(row);
+                    if (values != null) {
+                        writeCsvLine(writer, values);
+                    }
+                }
+                writer.flush();
+                return copy.endCopy();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        });
+        jdbcTemplate.execute("CREATE INDEX ON task_import (ref)");
+        jdbcTemplate.execute("ANALYZE task_import");
+
+        reject(errors, REJECT_DUPLICATE_REFS);
+        reject(errors, REJECT_UNKNOWN_SPRINTS, projectId);
+        reject(errors, REJECT_UNKNOWN_PARENTS, projectId);
+        reject(errors, REJECT_UNREACHABLE);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long userId = AuthUser.authId();
+        jdbcTemplate.update(ALLOCATE_IDS);
+        jdbcTemplate.update(BUILD_PATHS);
+        int imported = jdbcTemplate.update(INSERT_TASKS, projectId, now, now);
+        jdbcTemplate.update(INSERT_ACTIVITIES, userId, now);
+        jdbcTemplate.update(INSERT_COMMENTS, userId, now);
+        jdbcTemplate.update(INSERT_TAGS);
+        jdbcTemplate.update(INSERT_AUTHORS, ObjectType.TASK.ordinal(), userId, now);
+        jdbcTemplate.update(RECALCULATE_ROLLUPS);
+        versionRepository.bumpSprints(jdbcTemplate.queryForList("SELECT DISTINCT sprint_id FROM task_import", Long.class));
+        log.info("imported {} of {} staged tasks to project {}, {} rows rejected", imported, staged, projectId, errors.count());
+        return new TaskImportResultTo(imported, errors.count(), errors.getReported());
+    }
+
+    private void reject(RowErrors errors, String sql, Object... args) {
+        jdbcTemplate.query(sql, rs -> {
+            errors.add(new RowError(rs.getLong(1), rs.getString(2)));
+        }, args);
+    }
+
+    private static void writeCsvLine(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values[i];
+            // unquoted empty field is NULL for COPY csv, quoted one is an empty string
+            if (value != null) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+        writer.write('\n');
+    }
+
+    // counts all rejected rows, but keeps only the first MAX_REPORTED_ERRORS of them for the report
+    private static class RowErrors {
+        private final PriorityQueue<RowError> reported = new PriorityQueue<>(Comparator.comparingLong(RowError::row).reversed());
+        private long count;
+
+        void add(RowError error) {
+            count++;
+            reported.add(error);
+            if (reported.size() > MAX_REPORTED_ERRORS) {
+                reported.poll();
+            }
+        }
+
+        long count() {
+            return count;
+        }
+
+        List<RowError> getReported() {
+            List<RowError> errors = new ArrayList<>(reported);
+            errors.sort(Comparator.comparingLong(RowError::row));
+            return errors;
+        }
+    }
+
+    /**
+     * Checks a row against the reference codes and the staging column limits,
+     * returns the staging values or null with the error added to the report.
+     */
+    private static class RowValidator {
+        private final Set<String> typeCodes = getRefs(RefType.TASK).keySet();
+        private final Set<String> statusCodes = getRefs(RefType.TASK_STATUS).keySet();
+        private final Set<String> priorityCodes = getRefs(RefType.PRIORITY).keySet();
+        private final RowErrors errors;
+        private long rowNum;
+
+        RowValidator(RowErrors errors) {
+            this.errors = errors;
+        }
+
+        String[] validate(Row row) {
+            rowNum++;
+            try {
+                String ref = text(row, "ref", MAX_REF_LENGTH);
+                String parentRef = text(row, "parentRef", MAX_REF_LENGTH);
+                Long parentId = number(row, "parentId");
+                if (parentRef != null && parentId != null) {
+                    throw new IllegalRequestDataException("Only one of parentRef and parentId could be set");
+                }
+                String title = text(row, "title", 1024);
+                if (title == null) {
+                    throw new IllegalRequestDataException("Title must not be blank");
+                }
+                String typeCode = code(row, "typeCode", typeCodes);
+                if (typeCode == null) {
+                    throw new IllegalRequestDataException("Type code must not be blank");
+                }
+                String statusCode = code(row, "statusCode", statusCodes);
+                Long estimate = number(row, "estimate");
+                if (estimate != null && (estimate <= 0 || estimate > Integer.MAX_VALUE)) {
+                    throw new IllegalRequestDataException("Estimate must be positive integer");
+                }
+                return new String[]{String.valueOf(rowNum), ref, parentRef, toString(parentId), title, typeCode,
+                        statusCode == null ? DEFAULT_STATUS : statusCode, toString(number(row, "sprintId")),
+                        text(row, "description", 4096), code(row, "priorityCode", priorityCodes), toString(estimate),
+                        tags(row), text(row, "comment", 4096)};
+            } catch (IllegalRequestDataException e) {
+                errors.add(new RowError(rowNum, e.getMessage()));
+                return null;
+            }
+        }
+
+        private static String text(Row row, String field, int maxLength) {
+            String value = row.get(field);
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            if (value.length() > maxLength) {
+                throw new IllegalRequestDataException("'" + field + "' is longer than " + maxLength);
+            }
+            if (!Jsoup.isValid(value, Safelist.none())) {
+                throw new IllegalRequestDataException("'" + field + "' contains html");
+            }
+            return value;
+        }
+
+        private static String code(Row row, String field, Set<String> codes) {
+            String value = row.get(field);
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            if (!codes.contains(value)) {
+                throw new IllegalRequestDataException("Unknown " + field + " '" + value + "'");
+            }
+            return value;
+        }
+
+        private static Long number(Row row, String field) {
+            String value = row.get(field);
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            try {
+                return Long.valueOf(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalRequestDataException("'" + field + "' must be a number");
+            }
+        }
+
+        // normalized to distinct trimmed values, returned as an array literal for the staging column
+        private static String tags(Row row) {
+            List<String> values = row.getList("tags");
+            if (values == null || values.isEmpty()) {
+                return null;
+            }
+            Set<String> tags = new LinkedHashSet<>();
+            for (String tag : values) {
+                tag = tag.trim();
+                if (tag.length() < 2 || tag.length() > 32) {
+                    throw new IllegalRequestDataException("Tag '" + tag + "' must be 2-32 characters");
+                }
+                tags.add(tag);
+            }
+            StringJoiner literal = new StringJoiner(",", "{", "}");
+            tags.forEach(tag -> literal.add('"' + tag.replace("\\", "\\\\").replace("\"", "\\\"") + '"'));
+            return literal.toString();
+        }
+
+        private static String toString(Long value) {
+            return value == null ? null : value.toString();
+        }
+    }
+
+    // fields of a row by name
+    private interface Row {
+        String get(String field);
+
+        List<String> getList(String field);
+    }
+
+    // returns the next row, null at the end of input
+    private interface RowReader {
+        Row next() throws IOException;
+    }
+
+    private class NdjsonRowReader implements RowReader {
+        private final MappingIterator<JsonNode> iterator;
+
+        NdjsonRowReader(InputStream in) throws IOException {
+            this.iterator = objectMapper.readerFor(JsonNode.class).readValues(in);
+        }
+
+        @Override
+        public Row next() throws IOException {
+            JsonNode node;
+            try {
+                if (!iterator.hasNextValue()) {
+                    return null;
+                }
+                node = iterator.nextValue();
+            } catch (JsonProcessingException e) {
+                throw new IllegalRequestDataException("Invalid NDJSON: " + e.getOriginalMessage());
+            }
+            return new Row() {
+                @Override
+                public String get(String field) {
+                    JsonNode value = node.get(field);
+                    return value == null || value.isNull() ? null : value.asText();
+                }
+
+                // array items as they are, a single value is a single item
+                @Override
+                public List<String> getList(String field) {
+                    JsonNode value = node.get(field);
+                    if (value == null || value.isNull()) {
+                        return null;
+                    }
+                    if (!value.isArray()) {
+                        return List.of(value.asText());
+                    }
+                    List<String> items = new ArrayList<>(value.size());
+                    value.forEach(item -> items.add(item.asText()));
+                    return items;
+                }
+            };
+        }
+    }
+
+    /**
+     * RFC 4180 reader: the first record is the header, quoted fields may contain commas, quotes and line breaks.
+     * Columns not used by the import (e.g. id or code of an export file) are ignored.
+     * A list field is a CSV record itself: comma separated, an item with a comma is quoted.
+     */
+    private static class CsvRowReader implements RowReader {
+        private final Reader reader;
+        private final Map<String, Integer> header = new HashMap<>();
+        private final StringBuilder field = new StringBuilder();
+
+        CsvRowReader(InputStream in) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(in, UTF_8));
+            List<String> names = readRecord(reader, field);
+            if (names == null) {
+                throw new IllegalRequestDataException("CSV header is missing");
+            }
+            for (int i = 0; i < names.size(); i++) {
+                header.put(names.get(i).trim(), i);
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            List<String> values = readRecord(reader, field);
+            if (values == null) {
+                return null;
+            }
+            return new Row() {
+                @Override
+                public String get(String name) {
+                    Integer index = header.get(name);
+                    return index == null || index >= values.size() ? null : values.get(index);
+                }
+
+                @Override
+                public List<String> getList(String name) {
+                    String value = get(name);
+                    if (value == null || value.isBlank()) {
+                        return null;
+                    }
+                    try {
+                        return readRecord(new StringReader(value), new StringBuilder());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+        }
+
+        private static List<String> readRecord(Reader reader, StringBuilder field) throws IOException {
+            List<String> values = new ArrayList<>();
+            boolean quoted = false;
+            field.setLength(0);
+            for (int ch; ; ) {
+                ch = reader.read();
+                if (quoted) {
+                    if (ch == -1) {
+                        throw new IllegalRequestDataException("Invalid CSV: unclosed quote");
+                    } else if (ch != '"') {
+                        field.append((char) ch);
+                    } else {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    }
+                } else if (ch == '"') {
+                    quoted = true;
+                } else if (ch == ',') {
+                    values.add(field.toString());
+                    field.setLength(0);
+                } else if (ch == '\r') {
+                    // ignored, \n ends the record
+                } else if (ch == '\n' || ch == -1) {
+                    if (values.isEmpty() && field.isEmpty()) {
+                        // skip empty lines, stop at the end of input
+                        if (ch == -1) {
+                            return null;
+                        }
+                        continue;
+                    }
+                    values.add(field.toString());
+                    field.setLength(0);
+                    return values;
+                } else {
+                    field.append((char) ch);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.javarush.jira.bugtracking.task;
+
+import com.javarush.jira.bugtracking.task.TaskSearchRepository.SortBy;
+import com.javarush.jira.bugtracking.task.to.AssignedTaskFilter;
+import com.javarush.jira.bugtracking.task.to.AssignedTaskTo;
+import com.javarush.jira.bugtracking.task.to.TaskFilter;
+import com.javarush.jira.common.CountEstimator;
+import com.javarush.jira.common.error.IllegalRequestDataException;
+import com.javarush.jira.common.to.PageTo;
+import com.javarush.jira.common.util.KeysetCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Task lists paged by the (startpoint DESC, id DESC) cursor, search is paged by the key of its sort order.
+ * Sprint and backlog pages are counted in root tasks: a page holds whole subtrees and is never cut inside one.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskListService {
+    private static final String PROJECT_TASKS = "SELECT 1 FROM task WHERE project_id = ?";
+    private static final String SPRINT_TASKS = "SELECT 1 FROM task WHERE sprint_id = ?";
+    private static final String BACKLOG_TASKS = "SELECT 1 FROM task WHERE project_id = ? AND sprint_id IS NULL";
+
+    private static final Comparator<Task> KEYSET_ORDER = Comparator.comparing(Task::getStartpoint)
+            .thenComparing(Task::getId).reversed();
+
+    private final TaskRepository repository;
+    private final TaskSearchRepository searchRepository;
+    private final AssignedTaskRepository assignedTaskRepository;
+    private final CountEstimator countEstimator;
+
+    public <T> PageTo<T> getPageByProject(long projectId, @Nullable String cursor, @Nullable Integer size, boolean total,
+                                          Function<List<Task>, List<T>> mapper) {
+        KeysetCursor from = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        List<Task> tasks = repository.findPageByProjectId(projectId, from.timestamp(), from.id(), KeysetCursor.limit(pageSize));
+        return KeysetCursor.toPage(tasks, pageSize, TaskListService::keyOf, mapper)
+                .withTotal(total ? countEstimator.count(PROJECT_TASKS, projectId) : null);
+    }
+
+    public <T> PageTo<T> getTreePageBySprint(long sprintId, @Nullable String cursor, @Nullable Integer size, boolean total,
+                                             Function<List<Task>, List<T>> mapper) {
+        KeysetCursor from = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        List<Task> tasks = repository.findTreePageBySprintId(sprintId, from.timestamp(), from.id(), pageSize + 1);
+        return toTreePage(tasks, pageSize, mapper)
+                .withTotal(total ? countEstimator.count(SPRINT_TASKS, sprintId) : null);
+    }
+
+    public <T> PageTo<T> getBacklogTreePage(long projectId, @Nullable String cursor, @Nullable Integer size, boolean total,
+                                            Function<List<Task>, List<T>> mapper) {
+        KeysetCursor from = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        List<Task> tasks = repository.findBacklogTreePage(projectId, from.timestamp(), from.id(), pageSize + 1);
+        return toTreePage(tasks, pageSize, mapper)
+                .withTotal(total ? countEstimator.count(BACKLOG_TASKS, projectId) : null);
+    }
+
+    public <T> PageTo<T> search(TaskFilter filter, SortBy sortBy, Sort.Direction direction, @Nullable String cursor,
+                                @Nullable Integer size, Function<List<Task>, List<T>> mapper) {
+        if (filter.projectId() == null && filter.sprintId() == null && filter.assigneeId() == null) {
+            throw new IllegalRequestDataException("Search requires projectId, sprintId or assigneeId");
+        }
+        int pageSize = KeysetCursor.pageSize(size);
+        List<Task> tasks = searchRepository.search(filter, sortBy, direction,
+                cursor == null ? null : KeysetCursor.decode(cursor), pageSize + 1);
+        return KeysetCursor.toPage(tasks, pageSize, sortBy::keyOf, mapper);
+    }
+
+    //  paged by the latest active assignment of the user to the task, not by the task startpoint
+    public PageTo<AssignedTaskTo> getAssigned(long userId, AssignedTaskFilter filter, @Nullable String cursor, @Nullable Integer size) {
+        KeysetCursor from = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        List<AssignedTaskTo> tasks = assignedTaskRepository.find(userId, filter, from, pageSize + 1);
+        return KeysetCursor.toPage(tasks, pageSize, task -> new KeysetCursor(task.assigned(), task.id()), Function.identity());
+    }
+
+    private static KeysetCursor keyOf(Task task) {
+        return new KeysetCursor(task.getStartpoint(), task.id());
+    }
+
+    //  tasks: up to size + 1 roots with their subtrees; the extra root only shows that the next page exists
+    static <T> PageTo<T> toTreePage(List<Task> tasks, int size, Function<List<Task>, List<T>> mapper) {
+        Map<Long, List<Task>> children = new HashMap<>();
+        List<Task> roots = new ArrayList<>();
+        Set<Long> ids = new HashSet<>();
+        tasks.forEach(task -> ids.add(task.id()));
+        for (Task task : tasks) {
+            if (task.getParentId() == null || !ids.contains(task.getParentId())) {
+                roots.add(task);
+            } else {
+                children.computeIfAbsent(task.getParentId(), id -> new ArrayList<>()).add(task);
+            }
+        }
+        roots.sort(KEYSET_ORDER);
+        String next = null;
+        if (roots.size() > size) {
+            Deque<Task> stack = new ArrayDeque<>(roots.subList(size, roots.size()));
+            while (!stack.isEmpty()) {
+                Task task = stack.pop();
+                ids.remove(task.id());
+                stack.addAll(children.getOrDefault(task.id(), List.of()));
+            }
+            next = keyOf(roots.get(size - 1)).encode();
+        }
+        List<Task> content = tasks.stream()
+                .filter(task -> ids.contains(task.id()))
+                .sorted(KEYSET_ORDER)
+                .toList();
+        return new PageTo<>(mapper.apply(content), next);
+    }
+}
@@ -0,0 +1,183 @@
+package com.javarush.jira.bugtracking.task;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javarush.jira.bugtracking.ObjectType;
+import com.javarush.jira.bugtracking.UserBelong;
+import com.javarush.jira.bugtracking.attachment.Attachment;
+import com.javarush.jira.bugtracking.task.to.ActivityTo;
+import com.javarush.jira.bugtracking.task.to.TaskPageTo;
+import com.javarush.jira.bugtracking.task.to.TaskRollupTo;
+import com.javarush.jira.bugtracking.task.to.TaskToFull;
+import com.javarush.jira.common.to.CodeTo;
+import com.javarush.jira.common.to.PageTo;
+import com.javarush.jira.common.util.KeysetCursor;
+import com.javarush.jira.login.UserTo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read model of the task page: task with parent/project/sprint codes, first pages of comments and history,
+ * attachments and active assignments are fetched by a single statement with json aggregation,
+ * without entity hydration and persistence context.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskPageRepository {
+    private static final String ACTIVITY_JSON = """
+            json_build_object('id', a.id, 'authorId', a.author_id, 'updated', a.updated, 'comment', a.comment,
+                              'statusCode', a.status_code, 'priorityCode', a.priority_code, 'typeCode', a.type_code,
+                              'title', a.title, 'description', a.description, 'estimate', a.estimate,
+                              'email', u.email, 'firstName', u.first_name, 'lastName', u.last_name, 'displayName', u.display_name)
+            """;
+
+    private static final String TASK_PAGE_QUERY = """
+            SELECT t.id, t.title, t.type_code, t.status_code, t.description, t.priority_code, t.estimate, t.updated, t.endpoint,
+                   t.subtask_estimate, t.subtask_statuses,
+                   t.parent_id, pt.type_code AS parent_type_code, pt.endpoint AS parent_endpoint,
+                   t.project_id, p.code AS project_code, p.endpoint AS project_endpoint,
+                   t.sprint_id, s.code AS sprint_code, s.endpoint AS sprint_endpoint,
+                   (SELECT json_agg(c ORDER BY c_updated DESC, c_id DESC)
+                      FROM (SELECT %1$s AS c, a.updated AS c_updated, a.id AS c_id
+                              FROM activity a JOIN users u ON u.id = a.author_id
+                             WHERE a.task_id = t.id AND a.comment IS NOT NULL
+                             ORDER BY a.updated DESC, a.id DESC LIMIT :limit) page) AS comments,
+                   (SELECT json_agg(c ORDER BY c_updated DESC, c_id DESC)
+                      FROM (SELECT %1$s AS c, a.updated AS c_updated, a.id AS c_id
+                              FROM activity a JOIN users u ON u.id = a.author_id
+                             WHERE a.task_id = t.id AND a.comment IS NULL
+                             ORDER BY a.updated DESC, a.id DESC LIMIT :limit) page) AS activities,
+                   (SELECT json_agg(json_build_object('id', at.id, 'name', at.name, 'fileLink', at.file_link, 'userId', at.user_id,
+                                                      'dateTime', at.date_time) ORDER BY at.id)
+                      FROM attachment at WHERE at.object_id = t.id AND at.object_type = :objectType) AS attachs,
+                   (SELECT json_agg(json_build_object('id', ub.id, 'userId', ub.user_id, 'userTypeCode', ub.user_type_code,
+                                                      'startpoint', ub.startpoint) ORDER BY ub.startpoint)
+                      FROM user_belong ub WHERE ub.object_id = t.id AND ub.object_type = :objectType AND ub.endpoint IS NULL) AS belongs
+              FROM task t
+                   JOIN project p ON p.id = t.project_id
+                   LEFT JOIN sprint s ON s.id = t.sprint_id
+                   LEFT JOIN task pt ON pt.id = t.parent_id
+             WHERE t.id = :id
+            """.formatted(ACTIVITY_JSON);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public Optional<TaskPageTo> get(long id) {
+        int pageSize = KeysetCursor.DEFAULT_PAGE_SIZE;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("limit", pageSize + 1)
+                .addValue("objectType", ObjectType.TASK.ordinal());
+        return jdbcTemplate.query(TASK_PAGE_QUERY, params, (rs, rowNum) -> mapRow(rs, pageSize)).stream().findFirst();
+    }
+
+    private TaskPageTo mapRow(ResultSet rs, int pageSize) throws SQLException {
+        long id = rs.getLong("id");
+        String typeCode = rs.getString("type_code");
+        Long parentId = rs.getObject("parent_id", Long.class);
+        Long sprintId = rs.getObject("sprint_id", Long.class);
+        CodeTo parent = parentId == null ? null :
+                codeTo(parentId, rs.getString("parent_type_code") + '-' + parentId, rs.getTimestamp("parent_endpoint"));
+        CodeTo project = codeTo(rs.getLong("project_id"), rs.getString("project_code"), rs.getTimestamp("project_endpoint"));
+        CodeTo sprint = sprintId == null ? null :
+                codeTo(sprintId, rs.getString("sprint_code"), rs.getTimestamp("sprint_endpoint"));
+
+        TaskToFull task = new TaskToFull(id, typeCode + '-' + id, rs.getString("title"), rs.getString("description"), typeCode,
+                rs.getString("status_code"), rs.getString("priority_code"), toLocalDateTime(rs.getTimestamp("updated")),
+                rs.getObject("estimate", Integer.class), parent, project, sprint, null);
+        task.setEnabled(isEnabled(rs.getTimestamp("endpoint")));
+        task.setRollup(new TaskRollupTo(rs.getLong("subtask_estimate"), readStatuses(rs.getString("subtask_statuses"))));
+
+        PageTo<ActivityTo> activities = toActivityPage(rs.getString("activities"), id, pageSize);
+        task.setActivityTos(activities.content());
+        task.setActivitiesNext(activities.next());
+        return new TaskPageTo(task, toActivityPage(rs.getString("comments"), id, pageSize), activities,
+                readList(rs.getString("attachs"), node -> toAttachment(node, id)),
+                readList(rs.getString("belongs"), node -> toUserBelong(node, id)));
+    }
+
+    private PageTo<ActivityTo> toActivityPage(String json, long taskId, int pageSize) {
+        return KeysetCursor.toPage(readList(json, node -> toActivityTo(node, taskId)), pageSize,
+                activity -> new KeysetCursor(activity.getUpdated(), activity.id()), Function.identity());
+    }
+
+    private static ActivityTo toActivityTo(JsonNode node, long taskId) {
+        long authorId = node.get("authorId").asLong();
+        UserTo author = new UserTo(authorId, text(node, "email"), null, text(node, "firstName"), text(node, "lastName"), text(node, "displayName"));
+        return new ActivityTo(node.get("id").asLong(), taskId, authorId, dateTime(node, "updated"), text(node, "comment"),
+                text(node, "statusCode"), text(node, "priorityCode"), text(node, "typeCode"), text(node, "title"),
+                text(node, "description"), node.hasNonNull("estimate") ? node.get("estimate").asInt() : null, author);
+    }
+
+    private static Attachment toAttachment(JsonNode node, long taskId) {
+        Attachment attachment = new Attachment(node.get("id").asLong(), text(node, "fileLink"), taskId, ObjectType.TASK,
+                node.get("userId").asLong(), text(node, "name"));
+        attachment.setDateTime(dateTime(node, "dateTime"));
+        return attachment;
+    }
+
+    private static UserBelong toUserBelong(JsonNode node, long taskId) {
+        UserBelong belong = new UserBelong(taskId, ObjectType.TASK, node.get("userId").asLong(), text(node, "userTypeCode"));
+        belong.setId(node.get("id").asLong());
+        belong.setStartpoint(dateTime(node, "startpoint"));
+        return belong;
+    }
+
+    private <T> List<T> readList(String json, Function<JsonNode, T> mapper) {
+        List<T> list = new ArrayList<>();
+        if (json != null) {
+            try {
+                objectMapper.readTree(json).forEach(node -> list.add(mapper.apply(node)));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Invalid task page json:\n'" + json + "'", e);
+            }
+        }
+        return list;
+    }
+
+    private Map<String, Integer> readStatuses(String json) {
+        try {
+            return objectMapper.readValue(json, new TypeReference<>() {
+            });
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid task rollup json:\n'" + json + "'", e);
+        }
+    }
+
+    private static CodeTo codeTo(long id, String code, Timestamp endpoint) {
+        CodeTo codeTo = new CodeTo(id, code);
+        codeTo.setEnabled(isEnabled(endpoint));
+        return codeTo;
+    }
+
+    private static boolean isEnabled(Timestamp endpoint) {
+        return endpoint == null || endpoint.toLocalDateTime().isAfter(LocalDateTime.now());
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private static String text(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asText() : null;
+    }
+
+    private static LocalDateTime dateTime(JsonNode node, String field) {
+        return node.hasNonNull(field) ? LocalDateTime.parse(node.get(field).asText()) : null;
+    }
+}
@@ -1,10 +1,15 @@
 package com.javarush.jira.bugtracking.task;
 
+import com.javarush.jira.bugtracking.task.to.TaskRollupTo;
 import com.javarush.jira.common.BaseRepository;
+import com.javarush.jira.common.util.JsonUtil;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,22 +24,157 @@ public interface TaskRepository extends BaseRepository<Task> {
     @Query("SELECT t FROM Task t WHERE t.projectId =:projectId ORDER BY t.startpoint DESC")
     List<Task> findAllByProjectId(long projectId);
 
+    @Query("""
+            SELECT t FROM Task t WHERE t.projectId =:projectId
+               AND (t.startpoint < :startpoint OR t.startpoint = :startpoint AND t.id < :id)
+             ORDER BY t.startpoint DESC, t.id DESC
+            """)
+    List<Task> findPageByProjectId(long projectId, LocalDateTime startpoint, long id, Pageable pageable);
+
+    //  page of sprint roots (tasks without parent in the sprint) together with all their subtasks;
+    //  a subtask below a task of another sprint is a root itself, so it is skipped under the page roots above it
+    @Query(value = """
+            WITH roots AS (
+                SELECT t.id
+                FROM task t
+                WHERE t.sprint_id =:sprintId
+                  AND NOT EXISTS (SELECT 1 FROM task p WHERE p.id = t.parent_id AND p.sprint_id =:sprintId)
+                  AND (t.startpoint < :startpoint OR t.startpoint = :startpoint AND t.id < :id)
+                ORDER BY t.startpoint DESC, t.id DESC
+                LIMIT :limit
+            )
+            SELECT t.* FROM task t
+            WHERE t.path && ARRAY(SELECT id FROM roots) AND t.sprint_id =:sprintId
+              AND NOT EXISTS (SELECT 1 FROM task a WHERE a.id = ANY(t.path) AND a.sprint_id IS DISTINCT FROM :sprintId
+                                AND array_position(t.path, a.id) > (SELECT max(array_position(t.path, r.id)) FROM roots r))
+            """, nativeQuery = true)
+    List<Task> findTreePageBySprintId(long sprintId, LocalDateTime startpoint, long id, int limit);
+
+    //  the same for the project backlog (tasks without sprint)
+    @Query(value = """
+            WITH roots AS (
+                SELECT t.id
+                FROM task t
+                WHERE t.project_id =:projectId AND t.sprint_id IS NULL
+                  AND NOT EXISTS (SELECT 1 FROM task p WHERE p.id = t.parent_id AND p.sprint_id IS NULL)
+                  AND (t.startpoint < :startpoint OR t.startpoint = :startpoint AND t.id < :id)
+                ORDER BY t.startpoint DESC, t.id DESC
+                LIMIT :limit
+            )
+            SELECT t.* FROM task t
+            WHERE t.path && ARRAY(SELECT id FROM roots) AND t.sprint_id IS NULL
+              AND NOT EXISTS (SELECT 1 FROM task a WHERE a.id = ANY(t.path) AND a.sprint_id IS NOT NULL
+                                AND array_position(t.path, a.id) > (SELECT max(array_position(t.path, r.id)) FROM roots r))
+            """, nativeQuery = true)
+    List<Task> findBacklogTreePage(long projectId, LocalDateTime startpoint, long id, int limit);
+
+    //  tasks of the backlog and enabled sprints of the project down to the given level (1 - root tasks only);
+    //  the level is counted in the sprint of the task: a task under a task of another sprint is a root of its sprint
+    @Query(value = """
+            SELECT t.* FROM task t
+            WHERE t.project_id =:projectId
+              AND (cardinality(t.path) <= :depth
+                   OR EXISTS (SELECT 1 FROM task a WHERE a.id = ANY(t.path) AND a.id <> t.id
+                                                     AND array_position(t.path, a.id) >= cardinality(t.path) - :depth
+                                                     AND a.sprint_id IS DISTINCT FROM t.sprint_id))
+              AND (t.sprint_id IS NULL OR t.sprint_id IN (SELECT s.id FROM sprint s WHERE s.project_id =:projectId
+                                                          AND (s.endpoint IS NULL OR s.endpoint >= now())))
+            ORDER BY t.startpoint DESC
+            """, nativeQuery = true)
+    List<Task> findTreeByProjectId(long projectId, int depth);
+
+    //  task with all its descendants, parents before children
+    @Query(value = "SELECT * FROM task WHERE path @> ARRAY[:id] ORDER BY path", nativeQuery = true)
+    List<Task> findSubtree(long id);
+
+    //  from the root down to the direct parent
+    @Query(value = """
+            SELECT a.* FROM task t JOIN task a ON a.id = ANY (t.path)
+            WHERE t.id =:id AND a.id <> :id
+            ORDER BY cardinality(a.path)
+            """, nativeQuery = true)
+    List<Task> findAncestors(long id);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM task WHERE id =:id AND path @> ARRAY[:ancestorId])", nativeQuery = true)
+    boolean isInSubtree(long id, long ancestorId);
+
+    //  path of the created task: path of the parent plus own id
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE task t
+            SET path = coalesce((SELECT p.path FROM task p WHERE p.id = t.parent_id), '{}') || t.id
+            WHERE t.id =:id
+            """, nativeQuery = true)
+    void initPath(long id);
+
+    //  re-root the subtree of the task under its current parent
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE task t
+            SET path = coalesce((SELECT p.path FROM task p JOIN task m ON p.id = m.parent_id WHERE m.id =:id), '{}')
+                       || ARRAY(SELECT u.id FROM unnest(t.path) WITH ORDINALITY AS u(id, n)
+                                WHERE u.n >= array_position(t.path, CAST(:id AS bigint)) ORDER BY u.n)
+            WHERE t.path @> ARRAY[:id]
+            """, nativeQuery = true)
+    void movePath(long id);
+
+    //  one statement for the whole subtree: the task gets the new parent, all its subtasks the sprint and re-rooted paths;
+    //  loaded tasks are detached, their flush would write the values before the move back
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            UPDATE task t
+            SET parent_id = CASE WHEN t.id =:id THEN CAST(:parentId AS bigint) ELSE t.parent_id END,
+                sprint_id = CAST(:sprintId AS bigint),
+                path = coalesce((SELECT p.path FROM task p WHERE p.id = CAST(:parentId AS bigint)), '{}')
+                       || ARRAY(SELECT u.id FROM unnest(t.path) WITH ORDINALITY AS u(id, n)
+                                WHERE u.n >= array_position(t.path, CAST(:id AS bigint)) ORDER BY u.n)
+            WHERE t.path @> ARRAY[:id]
+            """, nativeQuery = true)
+    int moveSubtree(long id, Long parentId, Long sprintId);
+
+    @Query(value = "SELECT DISTINCT sprint_id FROM task WHERE path @> ARRAY[:id]", nativeQuery = true)
+    List<Long> findSubtreeSprintIds(long id);
+
+    //  adds the delta to the rollups of all ancestors of the task and bumps their sprints:
+    //  an ancestor can be in another sprint than the task
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            WITH ancestor AS (
+                UPDATE task
+                SET subtask_estimate = subtask_estimate + :estimate,
+                    subtask_statuses = (SELECT coalesce(jsonb_object_agg(s.key, s.count), '{}')
+                                        FROM (SELECT e.key, sum(CAST(e.value AS int)) AS count
+                                              FROM (SELECT * FROM jsonb_each_text(subtask_statuses)
+                                                    UNION ALL
+                                                    SELECT * FROM jsonb_each_text(CAST(:statuses AS jsonb))) e
+                                              GROUP BY e.key) s
+                                        WHERE s.count <> 0)
+                WHERE id IN (SELECT unnest(path) FROM task WHERE id =:id) AND id <> :id
+                RETURNING sprint_id
+            )
+            UPDATE sprint SET version = version + 1 WHERE id = ANY (ARRAY(SELECT sprint_id FROM ancestor))
+            """, nativeQuery = true)
+    void addToAncestorRollups(long id, long estimate, String statuses);
+
+    //  a root task has no ancestors to update
+    default void addToAncestorRollups(Task task, TaskRollupTo delta) {
+        if (task.getParentId() != null && !delta.isEmpty()) {
+            addToAncestorRollups(task.id(), delta.estimate(), JsonUtil.writeValue(delta.statuses()));
+        }
+    }
+
     @Query("SELECT t FROM Task t JOIN FETCH t.project LEFT JOIN FETCH t.sprint LEFT JOIN FETCH t.parent WHERE t.id =:id")
     Optional<Task> findFullById(long id);
 
+    //  only a root task (path starts with it) moves together with its subtasks
+    @Modifying
+    @Query(value = "UPDATE task SET sprint_id =:sprintId WHERE path @> ARRAY[:taskId] AND path[1] =:taskId", nativeQuery = true)
+    void setTaskAndSubTasksSprint(long taskId, Long sprintId);
+
     @Modifying
     @Query(value = """
-            WITH RECURSIVE task_with_subtasks AS (
-                SELECT id, id AS child
-                FROM task
-                WHERE parent_id is null AND id =:taskId
-                UNION ALL
-                    SELECT task_with_subtasks.id, t.id
-                    FROM task_with_subtasks JOIN task t ON t.parent_id = task_with_subtasks.child
-            )
-            UPDATE task
-            SET sprint_id =:sprintId
-            WHERE id IN (SELECT child FROM task_with_subtasks)
+            UPDATE task t SET sprint_id =:sprintId
+            FROM task r WHERE r.id IN (:taskIds) AND r.parent_id IS NULL AND t.path @> ARRAY[r.id]
             """, nativeQuery = true)
-    void setTaskAndSubTasksSprint(long taskId, Long sprintId);
+    void setTasksAndSubTasksSprint(Collection<Long> taskIds, Long sprintId);
 }
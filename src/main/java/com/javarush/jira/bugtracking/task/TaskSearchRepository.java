@@ -0,0 +1,141 @@
+package com.javarush.jira.bugtracking.task;
+
+import com.javarush.jira.bugtracking.ObjectType;
+import com.javarush.jira.bugtracking.UserBelong;
+import com.javarush.jira.bugtracking.task.to.TaskFilter;
+import com.javarush.jira.common.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.CollectionUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Task search: the filter is translated to a Specification with only the requested predicates,
+ * rows are ordered and limited by the keyset of the chosen timestamp and id.
+ */
+@Repository
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class TaskSearchRepository {
+
+    public enum SortBy {
+        CREATED(Task::getStartpoint),
+        // tasks without activity yet are ordered by creation
+        UPDATED(task -> task.getUpdated() == null ? task.getStartpoint() : task.getUpdated());
+
+        final Function<Task, LocalDateTime> extractor;
+
+        SortBy(Function<Task, LocalDateTime> extractor) {
+            this.extractor = extractor;
+        }
+
+        public KeysetCursor keyOf(Task task) {
+            return new KeysetCursor(extractor.apply(task), task.id());
+        }
+
+        Expression<LocalDateTime> expression(Root<Task> root, CriteriaBuilder cb) {
+            return this == CREATED ? root.get("startpoint") :
+                    cb.coalesce(root.<LocalDateTime>get("updated"), root.<LocalDateTime>get("startpoint"));
+        }
+    }
+
+    private final EntityManager em;
+
+    public List<Task> search(TaskFilter filter, SortBy sortBy, Sort.Direction direction, @Nullable KeysetCursor from, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Task> query = cb.createQuery(Task.class);
+        Root<Task> root = query.from(Task.class);
+        Specification<Task> spec = byFilter(filter);
+        if (from != null) {
+            spec = spec.and(after(sortBy, direction, from));
+        }
+        Expression<LocalDateTime> sortKey = sortBy.expression(root, cb);
+        query.where(spec.toPredicate(root, query, cb))
+                .orderBy(direction.isAscending() ?
+                        List.of(cb.asc(sortKey), cb.asc(root.get("id"))) :
+                        List.of(cb.desc(sortKey), cb.desc(root.get("id"))));
+        return em.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    static Specification<Task> byFilter(TaskFilter filter) {
+        return Specification.where(equal("projectId", filter.projectId()))
+                .and(equal("sprintId", filter.sprintId()))
+                .and(equal("parentId", filter.parentId()))
+                .and(in("statusCode", filter.statusCode()))
+                .and(in("typeCode", filter.typeCode()))
+                .and(in("priorityCode", filter.priorityCode()))
+                .and(hasTag(filter.tag()))
+                .and(assignedTo(filter.assigneeId(), filter.assigneeType()))
+                .and(between("startpoint", filter.createdFrom(), filter.createdTo()))
+                .and(between("updated", filter.updatedFrom(), filter.updatedTo()));
+    }
+
+    //  null specification is skipped by Specification.and
+    @Nullable
+    private static Specification<Task> equal(String attribute, @Nullable Object value) {
+        return value == null ? null : (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+
+    @Nullable
+    private static Specification<Task> in(String attribute, @Nullable List<String> values) {
+        return CollectionUtils.isEmpty(values) ? null : (root, query, cb) -> root.get(attribute).in(values);
+    }
+
+    @Nullable
+    private static Specification<Task> hasTag(@Nullable String tag) {
+        return tag == null ? null : (root, query, cb) -> cb.isMember(tag, root.get("tags"));
+    }
+
+    @Nullable
+    private static Specification<Task> assignedTo(@Nullable Long userId, @Nullable String userType) {
+        if (userId == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Subquery<Long> belongs = query.subquery(Long.class);
+            Root<UserBelong> belong = belongs.from(UserBelong.class);
+            Predicate assigned = cb.and(
+                    cb.equal(belong.get("userId"), userId),
+                    cb.equal(belong.get("objectType"), ObjectType.TASK),
+                    cb.equal(belong.get("objectId"), root.get("id")),
+                    cb.isNull(belong.get("endpoint")));
+            if (userType != null) {
+                assigned = cb.and(assigned, cb.equal(belong.get("userTypeCode"), userType));
+            }
+            return cb.exists(belongs.select(belong.get("id")).where(assigned));
+        };
+    }
+
+    @Nullable
+    private static Specification<Task> between(String attribute, @Nullable LocalDateTime from, @Nullable LocalDateTime to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Path<LocalDateTime> path = root.get(attribute);
+            if (from == null) {
+                return cb.lessThan(path, to);
+            }
+            return to == null ? cb.greaterThanOrEqualTo(path, from) : cb.and(cb.greaterThanOrEqualTo(path, from), cb.lessThan(path, to));
+        };
+    }
+
+    private static Specification<Task> after(SortBy sortBy, Sort.Direction direction, KeysetCursor from) {
+        return (root, query, cb) -> {
+            Expression<LocalDateTime> key = sortBy.expression(root, cb);
+            Path<Long> id = root.get("id");
+            return direction.isAscending() ?
+                    cb.or(cb.greaterThan(key, from.timestamp()), cb.and(cb.equal(key, from.timestamp()), cb.greaterThan(id, from.id()))) :
+                    cb.or(cb.lessThan(key, from.timestamp()), cb.and(cb.equal(key, from.timestamp()), cb.lessThan(id, from.id())));
+        };
+    }
+}
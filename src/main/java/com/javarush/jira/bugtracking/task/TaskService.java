@@ -1,31 +1,46 @@
 package com.javarush.jira.bugtracking.task;
 
+import com.javarush.jira.bugtracking.AssignmentChangedEvent;
+import com.javarush.jira.bugtracking.ChangeVersionRepository;
 import com.javarush.jira.bugtracking.Handlers;
-import com.javarush.jira.bugtracking.UserBelong;
 import com.javarush.jira.bugtracking.UserBelongRepository;
 import com.javarush.jira.bugtracking.sprint.Sprint;
 import com.javarush.jira.bugtracking.sprint.SprintRepository;
 import com.javarush.jira.bugtracking.task.mapper.TaskExtMapper;
 import com.javarush.jira.bugtracking.task.mapper.TaskFullMapper;
+import com.javarush.jira.bugtracking.task.to.ActivityTo;
+import com.javarush.jira.bugtracking.task.to.TaskRollupTo;
 import com.javarush.jira.bugtracking.task.to.TaskToExt;
 import com.javarush.jira.bugtracking.task.to.TaskToFull;
 import com.javarush.jira.common.error.DataConflictException;
 import com.javarush.jira.common.error.NotFoundException;
+import com.javarush.jira.common.to.PageTo;
+import com.javarush.jira.common.util.JsonUtil;
 import com.javarush.jira.common.util.Util;
 import com.javarush.jira.login.AuthUser;
-import com.javarush.jira.ref.RefType;
+import jakarta.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 import static com.javarush.jira.bugtracking.ObjectType.TASK;
-import static com.javarush.jira.bugtracking.task.TaskUtil.fillExtraFields;
+import static com.javarush.jira.bugtracking.task.TaskUtil.isRelationsChanged;
 import static com.javarush.jira.bugtracking.task.TaskUtil.makeActivity;
-import static com.javarush.jira.ref.ReferenceService.getRefTo;
+import static com.javarush.jira.bugtracking.task.TaskUtil.makeChangesActivity;
+import static com.javarush.jira.bugtracking.task.TaskUtil.makeMoveActivity;
+import static com.javarush.jira.bugtracking.task.TaskUtil.ownRollup;
+import static com.javarush.jira.bugtracking.task.TaskUtil.rollupDelta;
+import static com.javarush.jira.bugtracking.task.TaskUtil.subtreeRollup;
+import static com.javarush.jira.common.util.validation.ValidationUtil.assureIdConsistent;
+import static com.javarush.jira.ref.ReferenceService.getStatusTransitions;
 
 @Service
 @RequiredArgsConstructor
@@ -35,24 +50,30 @@ public class TaskService {
 
     private final Handlers.TaskExtHandler handler;
     private final Handlers.ActivityHandler activityHandler;
+    private final ActivityService activityService;
     private final TaskFullMapper fullMapper;
     private final SprintRepository sprintRepository;
     private final TaskExtMapper extMapper;
     private final UserBelongRepository userBelongRepository;
+    private final ChangeVersionRepository versionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void changeStatus(long taskId, String statusCode) {
         Assert.notNull(statusCode, "statusCode must not be null");
         Task task = handler.getRepository().getExisted(taskId);
         if (!statusCode.equals(task.getStatusCode())) {
+            TaskRollupTo before = ownRollup(task);
             task.checkAndSetStatusCode(statusCode);
             Activity statusChangedActivity = new Activity(null, taskId, AuthUser.authId());
             statusChangedActivity.setStatusCode(statusCode);
-            activityHandler.create(statusChangedActivity);
-            String userType = getRefTo(RefType.TASK_STATUS, statusCode).getAux(1);
+            task.applyActivity(activityHandler.create(statusChangedActivity));
+            String userType = getStatusTransitions().getUserType(statusCode);
             if (userType != null) {
                 handler.createUserBelong(taskId, TASK, AuthUser.authId(), userType);
             }
+            handler.getRepository().addToAncestorRollups(task, rollupDelta(ownRollup(task), before));
+            versionRepository.bumpSprint(task.getSprintId());
         }
     }
 
@@ -69,29 +90,94 @@ public class TaskService {
             }
         }
         handler.getRepository().setTaskAndSubTasksSprint(taskId, sprintId);
+        versionRepository.bumpSprints(Arrays.asList(task.getSprintId(), sprintId));
+    }
+
+    //  sprint of a subtask is the sprint of its new parent, sprintId is applied to a task that becomes a root
+    @Transactional
+    public void move(long taskId, @Nullable Long parentId, @Nullable Long sprintId) {
+        TaskRepository repository = handler.getRepository();
+        Task task = repository.getExisted(taskId);
+        if (parentId != null) {
+            Task parent = repository.getExisted(parentId);
+            if (parent.getProjectId() != task.getProjectId()) {
+                throw new DataConflictException("Target parent task must belong to the same project");
+            }
+            // path of the parent holds all its ancestors
+            if (repository.isInSubtree(parentId, taskId)) {
+                throw new DataConflictException("Task cannot become a subtask of itself or of its subtask");
+            }
+            sprintId = parent.getSprintId();
+        } else if (sprintId != null && sprintRepository.getExisted(sprintId).getProjectId() != task.getProjectId()) {
+            throw new DataConflictException("Target sprint must belong to the same project");
+        }
+        boolean sprintChanged = !Objects.equals(task.getSprintId(), sprintId);
+        if (!sprintChanged && Objects.equals(task.getParentId(), parentId)) {
+            return;
+        }
+        if (sprintChanged && !(AuthUser.get().isAdmin() || AuthUser.get().isManager())) {
+            throw new DataConflictException("Do not have authorities to change task's sprint");
+        }
+        List<Long> sprintsBefore = repository.findSubtreeSprintIds(taskId);
+        TaskRollupTo subtree = subtreeRollup(task);
+        repository.addToAncestorRollups(task, rollupDelta(TaskRollupTo.EMPTY, subtree));
+        int moved = repository.moveSubtree(taskId, parentId, sprintId);
+        if (parentId != null) {
+            repository.addToAncestorRollups(taskId, subtree.estimate(), JsonUtil.writeValue(subtree.statuses()));
+        }
+        Activity moveActivity = activityHandler.create(makeMoveActivity(task, parentId, sprintId, moved - 1));
+        repository.getExisted(taskId).applyActivity(moveActivity);
+        List<Long> changedSprints = new ArrayList<>(sprintsBefore);
+        changedSprints.add(sprintId);
+        versionRepository.bumpSprints(changedSprints);
     }
 
     @Transactional
     public Task create(TaskToExt taskTo) {
         Task created = handler.createWithBelong(taskTo, TASK, "task_author");
-        activityHandler.create(makeActivity(created.id(), taskTo));
+        handler.getRepository().initPath(created.id());
+        created.applyActivity(activityHandler.create(makeActivity(created.id(), taskTo)));
+        handler.getRepository().addToAncestorRollups(created, ownRollup(created));
+        versionRepository.bumpSprint(created.getSprintId());
         return created;
     }
 
     @Transactional
     public void update(TaskToExt taskTo, long id) {
-        if (!taskTo.equals(get(taskTo.id()))) {
+        assureIdConsistent(taskTo, id);
+        TaskRepository repository = handler.getRepository();
+        Task task = repository.getExisted(id);
+        boolean parentChanged = !Objects.equals(task.getParentId(), taskTo.getParentId());
+        if (parentChanged && taskTo.getParentId() != null && repository.isInSubtree(taskTo.getParentId(), id)) {
+            throw new DataConflictException("Task cannot become a subtask of itself or of its subtask");
+        }
+        Activity changes = makeChangesActivity(task, taskTo);
+        if (changes != null || isRelationsChanged(task, taskTo)) {
+            TaskRollupTo before = subtreeRollup(task);
+            Long sprintBefore = task.getSprintId();
+            if (parentChanged) {
+                // the whole subtree leaves the old ancestors
+                repository.addToAncestorRollups(task, rollupDelta(TaskRollupTo.EMPTY, before));
+            }
             handler.updateFromTo(taskTo, id);
-            activityHandler.create(makeActivity(id, taskTo));
+            if (parentChanged) {
+                repository.movePath(id);
+            }
+            if (changes != null) {
+                task.applyActivity(activityHandler.create(changes));
+            }
+            TaskRollupTo after = subtreeRollup(task);
+            repository.addToAncestorRollups(task, parentChanged ? after : rollupDelta(after, before));
+            versionRepository.bumpSprints(Arrays.asList(sprintBefore, task.getSprintId()));
         }
     }
 
     public TaskToFull get(long id) {
         Task task = Util.checkExist(id, handler.getRepository().findFullById(id));
         TaskToFull taskToFull = fullMapper.toTo(task);
-        List<Activity> activities = activityHandler.getRepository().findAllByTaskIdOrderByUpdatedDesc(id);
-        fillExtraFields(taskToFull, activities);
-        taskToFull.setActivityTos(activityHandler.getMapper().toToList(activities));
+        PageTo<ActivityTo> history = activityService.getHistory(id, null, null);
+        taskToFull.setActivityTos(history.content());
+        taskToFull.setActivitiesNext(history.next());
         return taskToFull;
     }
 
@@ -118,26 +204,32 @@ public class TaskService {
         return extMapper.toTo(newTask);
     }
 
+    @Transactional
     public void assign(long id, String userType, long userId) {
-        checkAssignmentActionPossible(id, userType, true);
-        handler.createUserBelong(id, TASK, userId, userType);
+        Task task = checkAssignmentActionPossible(id, userType, true);
+        if (handler.createUserBelong(id, TASK, userId, userType)) {
+            versionRepository.bumpSprint(task.getSprintId());
+        }
     }
 
     @Transactional
     public void unAssign(long id, String userType, long userId) {
-        checkAssignmentActionPossible(id, userType, false);
-        UserBelong assignment = userBelongRepository.findActiveAssignment(id, TASK, userId, userType)
-                .orElseThrow(() -> new NotFoundException(String
-                        .format("Not found assignment with userType=%s for task {%d} for user {%d}", userType, id, userId)));
-        assignment.setEndpoint(LocalDateTime.now());
+        Task task = checkAssignmentActionPossible(id, userType, false);
+        if (userBelongRepository.endActive(id, TASK, userId, userType, LocalDateTime.now()) == 0) {
+            throw new NotFoundException(String
+                    .format("Not found assignment with userType=%s for task {%d} for user {%d}", userType, id, userId));
+        }
+        eventPublisher.publishEvent(new AssignmentChangedEvent(TASK, id));
+        versionRepository.bumpSprint(task.getSprintId());
     }
 
-    private void checkAssignmentActionPossible(long id, String userType, boolean assign) {
+    private Task checkAssignmentActionPossible(long id, String userType, boolean assign) {
         Assert.notNull(userType, "userType must not be null");
         Task task = handler.getRepository().getExisted(id);
-        String possibleUserType = getRefTo(RefType.TASK_STATUS, task.getStatusCode()).getAux(1);
+        String possibleUserType = getStatusTransitions().getUserType(task.getStatusCode());
         if (!userType.equals(possibleUserType)) {
             throw new DataConflictException(String.format(assign ? CANNOT_ASSIGN : CANNOT_UN_ASSIGN, userType, task.getStatusCode()));
         }
+        return task;
     }
 }
@@ -4,9 +4,11 @@ import com.javarush.jira.bugtracking.Handlers;
 import com.javarush.jira.bugtracking.ObjectType;
 import com.javarush.jira.bugtracking.attachment.AttachmentRepository;
 import com.javarush.jira.bugtracking.task.to.ActivityTo;
+import com.javarush.jira.bugtracking.task.to.TaskPageTo;
 import com.javarush.jira.bugtracking.task.to.TaskToExt;
 import com.javarush.jira.bugtracking.task.to.TaskToFull;
-import com.javarush.jira.ref.RefTo;
+import com.javarush.jira.common.to.PageTo;
+import com.javarush.jira.common.util.Util;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,8 +17,7 @@ import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.List;
 
 import static com.javarush.jira.ref.RefType.*;
 import static com.javarush.jira.ref.ReferenceService.getRefs;
@@ -27,20 +28,23 @@ import static com.javarush.jira.ref.ReferenceService.getRefs;
 @RequiredArgsConstructor
 public class TaskUIController {
     static final String TASK_URL = "/ui/tasks";
+    private static final PageTo<ActivityTo> EMPTY_PAGE = new PageTo<>(List.of(), null);
 
     private final TaskService service;
     private final AttachmentRepository attachmentRepository;
-    private final Handlers.ActivityHandler activityHandler;
+    private final ActivityService activityService;
+    private final TaskPageRepository taskPageRepository;
     private final Handlers.AttachmentHandler attachmentHandler;
-    private final Handlers.TaskHandler taskHandler;
 
     @GetMapping("/{id}")
     public String get(@PathVariable long id, @RequestParam(required = false) boolean fragment, Model model) {
         log.info("get {}", id);
-        TaskToFull taskTo = service.get(id);
-        addTaskInfo(model, taskTo);
+        TaskPageTo page = Util.checkExist(id, taskPageRepository.get(id));
+        model.addAttribute("task", page.task());
+        model.addAttribute("attachs", page.attachs());
+        model.addAttribute("belongs", page.belongs());
+        addActivities(model, page.comments(), page.activities());
         model.addAttribute("fragment", fragment);
-        model.addAttribute("belongs", taskHandler.getAllBelongs(id));
         return "task";
     }
 
@@ -81,13 +85,10 @@ public class TaskUIController {
     public String createOrUpdate(@Valid @ModelAttribute("task") TaskToExt taskTo, BindingResult result, Model model) {
         if (result.hasErrors()) {
             addRefs(model, taskTo.getStatusCode());
-            List<ActivityTo> activityTos = taskTo.isNew() ? Collections.emptyList() :
-                    activityHandler.getMapper().toToList(activityHandler.getRepository().findAllByTaskIdOrderByUpdatedDesc(taskTo.getId()));
-            List<ActivityTo> comments = getComments(activityTos);
-            activityTos.removeAll(comments);
-            model.addAttribute("comments", comments);
-            model.addAttribute("activities", activityTos);
-            if (!taskTo.isNew()) {
+            if (taskTo.isNew()) {
+                addActivities(model, EMPTY_PAGE, EMPTY_PAGE);
+            } else {
+                addActivities(model, activityService.getComments(taskTo.id(), null, null), activityService.getHistory(taskTo.id(), null, null));
                 model.addAttribute("attachs", attachmentHandler.getRepository().getAllForObject(taskTo.id(), ObjectType.TASK));
             }
             return "task-edit";
@@ -105,17 +106,21 @@ public class TaskUIController {
     }
 
     private void addTaskInfo(Model model, TaskToFull taskTo) {
-        List<ActivityTo> comments = getComments(taskTo.getActivityTos());
-        taskTo.getActivityTos().removeAll(comments);
         model.addAttribute("task", taskTo);
-        model.addAttribute("comments", comments);
         model.addAttribute("attachs", attachmentHandler.getRepository().getAllForObject(taskTo.id(), ObjectType.TASK));
-        model.addAttribute("activities", taskTo.getActivityTos());
+        addActivities(model, activityService.getComments(taskTo.id(), null, null), new PageTo<>(taskTo.getActivityTos(), taskTo.getActivitiesNext()));
+    }
+
+    private void addActivities(Model model, PageTo<ActivityTo> comments, PageTo<ActivityTo> activities) {
+        model.addAttribute("comments", comments.content());
+        model.addAttribute("commentsNext", comments.next());
+        model.addAttribute("activities", activities.content());
+        model.addAttribute("activitiesNext", activities.next());
     }
 
     private void addRefs(Model model, String currentStatus) {
         model.addAttribute("types", getRefs(TASK));
-        model.addAttribute("statuses", getPossibleStatusRefs(currentStatus));
+        model.addAttribute("statuses", TaskUtil.getPossibleStatusRefs(currentStatus));
         model.addAttribute("priorities", getRefs(PRIORITY));
     }
 
@@ -124,25 +129,5 @@ public class TaskUIController {
         model.addAttribute("types", getRefs(TASK));
         model.addAttribute("statuses", getRefs(TASK_STATUS));
         model.addAttribute("priorities", getRefs(PRIORITY));
-
-    }
-
-    private Map<String, RefTo> getPossibleStatusRefs(String currentStatus) {
-        Set<String> possibleStatuses = new HashSet<>();
-        possibleStatuses.add(currentStatus);
-        Map<String, RefTo> taskStatusRefs = getRefs(TASK_STATUS);
-        String possibleStatusesAux = taskStatusRefs.get(currentStatus).getAux(0);
-        if (possibleStatusesAux != null) {
-            possibleStatuses.addAll(Set.of(possibleStatusesAux.split(",")));
-        }
-        return taskStatusRefs.entrySet().stream()
-                .filter(ref -> possibleStatuses.contains(ref.getKey()))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (ref1, ref2) -> ref1, LinkedHashMap::new));
-    }
-
-    private List<ActivityTo> getComments(List<ActivityTo> activityTos) {
-        return activityTos.stream()
-                .filter(activity -> activity.getComment() != null)
-                .toList();
     }
 }
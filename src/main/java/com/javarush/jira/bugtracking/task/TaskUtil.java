@@ -1,73 +1,87 @@
 package com.javarush.jira.bugtracking.task;
 
+import com.javarush.jira.bugtracking.task.to.TaskRollupTo;
 import com.javarush.jira.bugtracking.task.to.TaskToExt;
-import com.javarush.jira.bugtracking.task.to.TaskToFull;
 import com.javarush.jira.common.error.DataConflictException;
 import com.javarush.jira.login.AuthUser;
 import com.javarush.jira.ref.RefTo;
 
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
-import static com.javarush.jira.ref.RefType.TASK_STATUS;
-import static com.javarush.jira.ref.ReferenceService.getRefs;
+import static com.javarush.jira.ref.ReferenceService.getStatusTransitions;
 
 public class TaskUtil {
 
     static Map<String, RefTo> getPossibleStatusRefs(String currentStatus) {
-        Set<String> possibleStatuses = getPossibleStatuses(currentStatus);
-        return getRefs(TASK_STATUS).entrySet().stream()
-                .filter(ref -> possibleStatuses.contains(ref.getKey()))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (ref1, ref2) -> ref1, LinkedHashMap::new));
+        return getStatusTransitions().getPossibleRefs(currentStatus);
     }
 
     static void checkStatusChangePossible(String currentStatus, String newStatus) {
-        if (!getPossibleStatuses(currentStatus).contains(newStatus)) {
+        if (!getStatusTransitions().isChangePossible(currentStatus, newStatus)) {
             throw new DataConflictException("Cannot change task status from " + currentStatus + " to " + newStatus);
         }
     }
 
-    private static Set<String> getPossibleStatuses(String currentStatus) {
-        Set<String> possibleStatuses = new HashSet<>();
-        possibleStatuses.add(currentStatus);
-        Map<String, RefTo> taskStatusRefs = getRefs(TASK_STATUS);
-        String aux = taskStatusRefs.get(currentStatus).getAux(0);
-        possibleStatuses.addAll(aux == null ? Set.of() : Set.of(aux.split(",")));
-        return possibleStatuses;
+    static Activity makeActivity(long taskId, TaskToExt taskTo) {
+        return new Activity(null, taskId, AuthUser.authId(), null, null, taskTo.getStatusCode(), taskTo.getPriorityCode(),
+                taskTo.getTypeCode(), taskTo.getTitle(), taskTo.getDescription(), taskTo.getEstimate());
     }
 
-    static void fillExtraFields(TaskToFull taskToFull, List<Activity> activities) {
-        if (!activities.isEmpty()) {
-            taskToFull.setUpdated(activities.get(0).getUpdated());
-            for (Activity latest : activities) {
-                if (taskToFull.getDescription() == null && latest.getDescription() != null) {
-                    taskToFull.setDescription(latest.getDescription());
-                }
-                if (taskToFull.getPriorityCode() == null && latest.getPriorityCode() != null) {
-                    taskToFull.setPriorityCode(latest.getPriorityCode());
-                }
-                if (taskToFull.getEstimate() == null && latest.getEstimate() != null) {
-                    taskToFull.setEstimate(latest.getEstimate());
-                }
-                if (taskToFull.getDescription() != null && taskToFull.getPriorityCode() != null && taskToFull.getEstimate() != null)
-                    break;
-            }
+    // sparse activity with changed fields only, null if nothing changed
+    static Activity makeChangesActivity(Task task, TaskToExt taskTo) {
+        String statusCode = getChanged(task.getStatusCode(), taskTo.getStatusCode());
+        String priorityCode = getChanged(task.getPriorityCode(), taskTo.getPriorityCode());
+        String typeCode = getChanged(task.getTypeCode(), taskTo.getTypeCode());
+        String title = getChanged(task.getTitle(), taskTo.getTitle());
+        String description = getChanged(task.getDescription(), taskTo.getDescription());
+        Integer estimate = getChanged(task.getEstimate(), taskTo.getEstimate());
+        if (statusCode == null && priorityCode == null && typeCode == null && title == null && description == null && estimate == null) {
+            return null;
         }
+        return new Activity(null, task.id(), AuthUser.authId(), null, null, statusCode, priorityCode, typeCode, title, description, estimate);
     }
 
-    static String getLatestValue(List<Activity> activities, Function<Activity, String> valueExtractFunction) {
-        for (Activity activity : activities) {
-            String value = valueExtractFunction.apply(activity);
-            if (value != null) {
-                return value;
-            }
-        }
-        return null;
+    // one summary activity for the moved task instead of an activity per moved subtask
+    static Activity makeMoveActivity(Task task, Long parentId, Long sprintId, int subtasks) {
+        String comment = String.format("Moved with %d subtasks: parent %s -> %s, sprint %s -> %s", subtasks,
+                orNone(task.getParentId()), orNone(parentId), orBacklog(task.getSprintId()), orBacklog(sprintId));
+        return new Activity(null, task.id(), AuthUser.authId(), null, comment, null, null, null, null, null, null);
     }
 
-    static Activity makeActivity(long taskId, TaskToExt taskTo) {
-        return new Activity(null, taskId, AuthUser.authId(), null, null, taskTo.getStatusCode(), taskTo.getPriorityCode(),
-                taskTo.getTypeCode(), taskTo.getTitle(), taskTo.getDescription(), taskTo.getEstimate());
+    private static String orNone(Long parentId) {
+        return parentId == null ? "none" : String.valueOf(parentId);
+    }
+
+    private static String orBacklog(Long sprintId) {
+        return sprintId == null ? "backlog" : String.valueOf(sprintId);
+    }
+
+    static boolean isRelationsChanged(Task task, TaskToExt taskTo) {
+        return !Objects.equals(task.getParentId(), taskTo.getParentId()) || task.getProjectId() != taskTo.getProjectId() ||
+                !Objects.equals(task.getSprintId(), taskTo.getSprintId());
+    }
+
+    // what the task alone adds to the rollups of its ancestors
+    static TaskRollupTo ownRollup(Task task) {
+        return new TaskRollupTo(task.getEstimate() == null ? 0 : task.getEstimate(), Map.of(task.getStatusCode(), 1));
+    }
+
+    // what the task with its subtasks adds to the rollups of its ancestors
+    static TaskRollupTo subtreeRollup(Task task) {
+        Map<String, Integer> statuses = new HashMap<>(task.getSubtaskStatuses());
+        statuses.merge(task.getStatusCode(), 1, Integer::sum);
+        return new TaskRollupTo(task.getSubtaskEstimate() + (task.getEstimate() == null ? 0 : task.getEstimate()), statuses);
+    }
+
+    static TaskRollupTo rollupDelta(TaskRollupTo after, TaskRollupTo before) {
+        Map<String, Integer> statuses = new HashMap<>(after.statuses());
+        before.statuses().forEach((status, count) -> statuses.merge(status, -count, Integer::sum));
+        statuses.values().removeIf(count -> count == 0);
+        return new TaskRollupTo(after.estimate() - before.estimate(), statuses);
+    }
+
+    // null value in activity means "not changed"
+    private static <T> T getChanged(T current, T updated) {
+        return updated == null || updated.equals(current) ? null : updated;
     }
 }
@@ -33,5 +33,10 @@ public interface TaskExtMapper extends BaseMapper<Task, TaskToExt> {
     @Override
     @Mapping(target = "projectId", expression = "java(TaskExtMapper.checkProjectBelong(taskToExt.getProjectId(), task))")
     @Mapping(target = "sprintId", expression = "java(TaskExtMapper.checkUserAuthorities(taskToExt.getSprintId(), task))")
+    // materialized from the activity, see Task.applyActivity
+    @Mapping(target = "description", ignore = true)
+    @Mapping(target = "priorityCode", ignore = true)
+    @Mapping(target = "estimate", ignore = true)
+    @Mapping(target = "updated", ignore = true)
     Task updateFromTo(TaskToExt taskToExt, @MappingTarget Task task);
 }
@@ -1,14 +1,17 @@
 package com.javarush.jira.bugtracking.task.mapper;
 
 import com.javarush.jira.bugtracking.task.Task;
+import com.javarush.jira.bugtracking.task.to.TaskRollupTo;
 import com.javarush.jira.bugtracking.task.to.TaskToFull;
 import com.javarush.jira.common.BaseMapper;
 import com.javarush.jira.common.TimestampMapper;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
-@Mapper(config = TimestampMapper.class)
+@Mapper(config = TimestampMapper.class, imports = TaskRollupTo.class)
 public interface TaskFullMapper extends BaseMapper<Task, TaskToFull> {
 
     @Override
+    @Mapping(target = "rollup", expression = "java(new TaskRollupTo(task.getSubtaskEstimate(), task.getSubtaskStatuses()))")
     TaskToFull toTo(Task task);
 }
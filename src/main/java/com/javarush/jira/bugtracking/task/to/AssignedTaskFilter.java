@@ -0,0 +1,12 @@
+package com.javarush.jira.bugtracking.task.to;
+
+import jakarta.annotation.Nullable;
+
+import java.util.List;
+
+// all conditions are optional and combined by AND; userType keeps tasks where the user has this role among others
+public record AssignedTaskFilter(@Nullable Long projectId,
+                                 @Nullable Long sprintId,
+                                 @Nullable List<String> statusCode,
+                                 @Nullable String userType) {
+}
@@ -0,0 +1,12 @@
+package com.javarush.jira.bugtracking.task.to;
+
+import com.javarush.jira.common.to.CodeTo;
+import jakarta.annotation.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Task of the user's active assignments: roles are the user's active user types at the task, assigned is the latest of them
+public record AssignedTaskTo(long id, String code, String title, String statusCode, String priorityCode,
+                             CodeTo project, @Nullable CodeTo sprint, List<String> roles, LocalDateTime assigned) {
+}
@@ -0,0 +1,6 @@
+package com.javarush.jira.bugtracking.task.to;
+
+import jakarta.annotation.Nullable;
+
+public record TaskBulkResultTo(long taskId, boolean success, @Nullable String error) {
+}
@@ -0,0 +1,27 @@
+package com.javarush.jira.bugtracking.task.to;
+
+import jakarta.annotation.Nullable;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+// operations are applied to every task in order; a task is either changed by all of them or not changed at all
+public record TaskBulkTo(@NotEmpty @Size(max = 1000) List<@NotNull Long> taskIds,
+                         @NotEmpty @Size(max = 10) List<@NotNull @Valid Operation> operations) {
+
+    public enum OperationType {
+        CHANGE_STATUS,
+        CHANGE_SPRINT,  // sprintId == null: move to backlog
+        ASSIGN,
+        UNASSIGN,
+        ENABLE
+    }
+
+    public record Operation(@NotNull OperationType type, @Nullable @Size(min = 2, max = 32) String statusCode,
+                            @Nullable Long sprintId, @Nullable @Size(min = 2, max = 32) String userType,
+                            @Nullable Boolean enabled) {
+    }
+}
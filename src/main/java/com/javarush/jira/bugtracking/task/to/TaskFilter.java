@@ -0,0 +1,25 @@
+package com.javarush.jira.bugtracking.task.to;
+
+import jakarta.annotation.Nullable;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
+
+// all conditions are optional and combined by AND; lists match any of the codes, ranges are [from, to)
+public record TaskFilter(@Nullable Long projectId,
+                         @Nullable Long sprintId,
+                         @Nullable Long parentId,
+                         @Nullable List<String> statusCode,
+                         @Nullable List<String> typeCode,
+                         @Nullable List<String> priorityCode,
+                         @Nullable String tag,
+                         @Nullable Long assigneeId,
+                         @Nullable String assigneeType,
+                         @Nullable @DateTimeFormat(iso = DATE_TIME) LocalDateTime createdFrom,
+                         @Nullable @DateTimeFormat(iso = DATE_TIME) LocalDateTime createdTo,
+                         @Nullable @DateTimeFormat(iso = DATE_TIME) LocalDateTime updatedFrom,
+                         @Nullable @DateTimeFormat(iso = DATE_TIME) LocalDateTime updatedTo) {
+}
@@ -0,0 +1,11 @@
+package com.javarush.jira.bugtracking.task.to;
+
+import java.util.List;
+
+// rejected counts all rejected rows, errors report only the first of them (TaskImportService.MAX_REPORTED_ERRORS)
+public record TaskImportResultTo(long imported, long rejected, List<RowError> errors) {
+
+    // row is 1-based number of the data row in the imported file (CSV header is not counted)
+    public record RowError(long row, String error) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.javarush.jira.bugtracking.task.to;
+
+import com.javarush.jira.bugtracking.UserBelong;
+import com.javarush.jira.bugtracking.attachment.Attachment;
+import com.javarush.jira.common.to.PageTo;
+
+import java.util.List;
+
+// Everything the task page shows, belongs are active assignments only
+public record TaskPageTo(TaskToFull task, PageTo<ActivityTo> comments, PageTo<ActivityTo> activities,
+                         List<Attachment> attachs, List<UserBelong> belongs) {
+}
@@ -0,0 +1,12 @@
+package com.javarush.jira.bugtracking.task.to;
+
+import java.util.Map;
+
+// aggregates over all subtasks at any depth: sum of estimates and number of subtasks per status code
+public record TaskRollupTo(long estimate, Map<String, Integer> statuses) {
+    public static final TaskRollupTo EMPTY = new TaskRollupTo(0, Map.of());
+
+    public boolean isEmpty() {
+        return estimate == 0 && statuses.isEmpty();
+    }
+}
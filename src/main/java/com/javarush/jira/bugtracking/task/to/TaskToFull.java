@@ -12,8 +12,13 @@ public class TaskToFull extends TaskToExt {
     CodeTo parent;
     CodeTo project;
     CodeTo sprint;
+    // first page of the change history, the rest is available by activitiesNext cursor
     @Setter
     List<ActivityTo> activityTos;
+    @Setter
+    String activitiesNext;
+    @Setter
+    TaskRollupTo rollup;
 
     public TaskToFull(Long id, String code, String title, String description, String typeCode, String statusCode, String priorityCode,
                       LocalDateTime updated, Integer estimate, CodeTo parent, CodeTo project, CodeTo sprint, List<ActivityTo> activityTos) {
@@ -2,11 +2,12 @@ package com.javarush.jira.bugtracking.tree;
 
 import com.javarush.jira.bugtracking.project.to.ProjectTo;
 import com.javarush.jira.bugtracking.sprint.to.SprintTo;
-import com.javarush.jira.bugtracking.task.to.TaskTo;
+import com.javarush.jira.bugtracking.task.Task;
+import com.javarush.jira.bugtracking.task.to.TaskRollupTo;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", imports = TaskRollupTo.class)
 public interface NodeMapper {
     @Mapping(target = "type", expression = "java(ObjectType.PROJECT)")
     NodeTo fromProject(ProjectTo project);
@@ -16,5 +17,6 @@ public interface NodeMapper {
     NodeTo fromSprint(SprintTo sprint);
 
     @Mapping(target = "type", expression = "java(ObjectType.TASK)")
-    NodeTo fromTask(TaskTo task);
+    @Mapping(target = "rollup", expression = "java(new TaskRollupTo(task.getSubtaskEstimate(), task.getSubtaskStatuses()))")
+    NodeTo fromTask(Task task);
 }
@@ -1,9 +1,11 @@
 package com.javarush.jira.bugtracking.tree;
 
 import com.javarush.jira.bugtracking.ObjectType;
+import com.javarush.jira.bugtracking.task.to.TaskRollupTo;
 import com.javarush.jira.common.HasIdAndParentId;
 import com.javarush.jira.common.to.CodeTo;
 import lombok.Getter;
+import lombok.Setter;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 
@@ -13,6 +15,10 @@ public class NodeTo extends CodeTo implements HasIdAndParentId {
     protected ObjectType type;
     @Nullable
     protected Long parentId;
+    // tasks only
+    @Nullable
+    @Setter
+    protected TaskRollupTo rollup;
 
     public NodeTo(long id, @NonNull String code, @NonNull ObjectType type, Long parentId) {
         super(id, code);
@@ -1,16 +1,25 @@
 package com.javarush.jira.bugtracking.tree;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.javarush.jira.bugtracking.ObjectType;
+import com.javarush.jira.bugtracking.task.to.TaskRollupTo;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 
-import java.util.LinkedList;
 import java.util.List;
 
 public record TreeNode(@NonNull String code, @NonNull Long id, @NonNull ObjectType nodeType,
-                       List<TreeNode> subNodes) implements ITreeNode<NodeTo, TreeNode> {
-    public TreeNode(NodeTo node) {
-        this(node.getCode(), node.getId(), node.getType(), new LinkedList<>());
+                       @Nullable @JsonInclude(JsonInclude.Include.NON_NULL) TaskRollupTo rollup,
+                       @JsonIgnore List<TreeNode> subNodes, @JsonIgnore boolean loaded) {
+    // tasks come with all their subtasks, projects and sprints load children lazily
+    public TreeNode(NodeTo node, List<TreeNode> subNodes) {
+        this(node, subNodes, node.getType() == ObjectType.TASK);
+    }
+
+    public TreeNode(NodeTo node, List<TreeNode> subNodes, boolean loaded) {
+        this(node.getCode(), node.getId(), node.getType(), node.getRollup(), subNodes, loaded);
     }
 
     //----------- properties for tree constructing ----------
@@ -20,15 +29,25 @@ public record TreeNode(@NonNull String code, @NonNull Long id, @NonNull ObjectTy
         return nodeType.name() + "-" + id;
     }
 
-    //if node is task there is nothing to load - return all subtasks, else return null to enable children lazy loading
+    //if children are loaded there is nothing to load - return them, else return null to enable children lazy loading
     @JsonProperty
     public List<TreeNode> getChildren() {
-        if (nodeType == ObjectType.TASK) {
+        if (loaded) {
             return subNodes;
         }
         return null;
     }
 
+    //loaded sub nodes are already sent as children, the lazy ones are added by the tree after loading of the node
+    @JsonProperty("subNodes")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public List<TreeNode> getLazySubNodes() {
+        if (loaded) {
+            return null;
+        }
+        return subNodes;
+    }
+
     @JsonProperty
     public String getTitle() {
         return code;
@@ -36,6 +55,6 @@ public record TreeNode(@NonNull String code, @NonNull Long id, @NonNull ObjectTy
 
     @JsonProperty
     public boolean isLazy() {
-        return nodeType != ObjectType.TASK;
+        return !loaded;
     }
 }
@@ -1,26 +1,34 @@
 package com.javarush.jira.bugtracking.tree;
 
 
-import com.javarush.jira.bugtracking.project.ProjectMapper;
-import com.javarush.jira.bugtracking.project.ProjectRepository;
+import com.javarush.jira.bugtracking.ChangeVersionRepository;
+import com.javarush.jira.bugtracking.project.ProjectCatalog;
 import com.javarush.jira.bugtracking.sprint.SprintMapper;
 import com.javarush.jira.bugtracking.sprint.SprintRepository;
 import com.javarush.jira.bugtracking.sprint.to.SprintTo;
+import com.javarush.jira.bugtracking.task.Task;
+import com.javarush.jira.bugtracking.task.TaskListService;
 import com.javarush.jira.bugtracking.task.TaskRepository;
-import com.javarush.jira.bugtracking.task.mapper.TaskMapper;
+import com.javarush.jira.common.error.IllegalRequestDataException;
+import com.javarush.jira.common.error.NotFoundException;
+import com.javarush.jira.common.to.PageTo;
+import com.javarush.jira.common.util.Forest;
 import com.javarush.jira.common.util.Util;
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
@@ -28,20 +36,21 @@ import java.util.function.Function;
 @RequestMapping(value = TreeRestController.REST_URL, produces = MediaType.APPLICATION_JSON_VALUE)
 public class TreeRestController {
     static final String REST_URL = "/api/tree";
+    private static final long BACKLOG_ID = 0;
 
     private final NodeMapper mapper;
-    private final ProjectRepository projectRepository;
-    private final ProjectMapper projectMapper;
+    private final ProjectCatalog catalog;
     private final SprintRepository sprintRepository;
     private final SprintMapper sprintMapper;
     private final TaskRepository taskRepository;
-    private final TaskMapper taskMapper;
+    private final TaskListService taskListService;
+    private final ChangeVersionRepository versionRepository;
 
     private static <T> List<TreeNode> toTree(List<T> list, Function<T, NodeTo> mapper) {
         List<NodeTo> nodes = list.stream()
                 .map(mapper)
                 .toList();
-        return Util.makeTree(nodes, TreeNode::new);
+        return Forest.of(nodes).map(TreeNode::new);
     }
 
     @GetMapping("/projects")
@@ -49,9 +58,14 @@ public class TreeRestController {
             summary = "Отримати дерево проєктів",
             description = "Повертає всі проєкти у вигляді ієрархічного дерева NodeTo"
     )
-    public List<TreeNode> getProjects() {
+    public List<TreeNode> getProjects(ServletWebRequest request) {
         log.info("get projects tree");
-        return toTree(projectMapper.toToList(projectRepository.getAll()), mapper::fromProject);
+        //  ETag of the sent snapshot, the database could be newer already
+        ProjectCatalog.Snapshot snapshot = catalog.get();
+        if (Util.checkNotModified(snapshot.digest(), request)) {
+            return null;
+        }
+        return snapshot.hierarchy().map((project, subNodes) -> new TreeNode(mapper.fromProject(project), subNodes));
     }
 
     @GetMapping("/projects/{projectId}/sprints")
@@ -59,10 +73,13 @@ public class TreeRestController {
             summary = "Отримати спринти проєкту та беклог",
             description = "Повертає список спринтів проєкту у вигляді дерева, включаючи окремий вузол 'Backlog'"
     )
-    public List<TreeNode> getSprintsAndBacklog(@PathVariable long projectId) {
+    public List<TreeNode> getSprintsAndBacklog(@PathVariable long projectId, ServletWebRequest request) {
         log.info("get project {} sprints", projectId);
+        if (Util.checkNotModified(versionRepository.getProjectETag(projectId), request)) {
+            return null;
+        }
         List<SprintTo> sprintTos = new ArrayList<>(sprintMapper.toToList(sprintRepository.getAllByProject(projectId)));
-        sprintTos.add(new SprintTo(0L, "Backlog", null, projectId));
+        sprintTos.add(new SprintTo(BACKLOG_ID, "Backlog", null, projectId));
         return toTree(sprintTos, mapper::fromSprint);
     }
 
@@ -71,9 +88,12 @@ public class TreeRestController {
             summary = "Отримати задачі для спринту",
             description = "Повертає задачі, прикріплені до певного спринту, у вигляді дерева"
     )
-    public List<TreeNode> getSprintTasks(@PathVariable long sprintId) {
+    public List<TreeNode> getSprintTasks(@PathVariable long sprintId, ServletWebRequest request) {
         log.info("get sprint {} tasks", sprintId);
-        return toTree(taskMapper.toToList(taskRepository.findAllBySprintId(sprintId)), mapper::fromTask);
+        if (Util.checkNotModified(versionRepository.getSprintETag(sprintId), request)) {
+            return null;
+        }
+        return toTree(taskRepository.findAllBySprintId(sprintId), mapper::fromTask);
     }
 
     @GetMapping("/projects/{projectId}/backlog/tasks")
@@ -83,6 +103,77 @@ public class TreeRestController {
     )
     public List<TreeNode> getBacklogTasks(@PathVariable long projectId) {
         log.info("get project {} backlog tasks", projectId);
-        return toTree(taskMapper.toToList(taskRepository.findAllByProjectIdAndSprintIsNull(projectId)), mapper::fromTask);
+        return toTree(taskRepository.findAllByProjectIdAndSprintIsNull(projectId), mapper::fromTask);
+    }
+
+    @GetMapping("/projects/{projectId}/backlog/tasks/page")
+    @Operation(
+            summary = "Отримати сторінку задач беклогу проєкту",
+            description = "Повертає сторінку дерева задач беклогу за курсором next; size рахує кореневі задачі, " +
+                    "піддерева не розриваються між сторінками. total=true додає кількість задач беклогу"
+    )
+    public PageTo<TreeNode> getBacklogTasksPage(@PathVariable long projectId, @Nullable @RequestParam(required = false) String cursor,
+                                                @Nullable @RequestParam(required = false) Integer size,
+                                                @RequestParam(defaultValue = "false") boolean total) {
+        log.info("get project {} backlog tasks page, cursor={}", projectId, cursor);
+        return taskListService.getBacklogTreePage(projectId, cursor, size, total,
+                tasks -> toTree(tasks, mapper::fromTask));
+    }
+
+    @GetMapping("/tasks/{taskId}/subtasks")
+    @Operation(
+            summary = "Отримати підзадачі задачі",
+            description = "Повертає дочірні задачі того ж спринту з усіма їх нащадками у вигляді дерева, для задач, обрізаних depth повного дерева проєкту"
+    )
+    public List<TreeNode> getSubtasks(@PathVariable long taskId) {
+        log.info("get task {} subtasks", taskId);
+        List<Task> subtree = taskRepository.findSubtree(taskId);
+        if (subtree.isEmpty()) {
+            throw new NotFoundException("Not found task with id=" + taskId);
+        }
+        // subtasks in another sprint are roots of the tree of that sprint
+        Task task = subtree.get(0);
+        Set<Long> inSprint = new HashSet<>();
+        inSprint.add(task.id());
+        List<Task> sprintSubtree = subtree.stream()
+                .filter(subtask -> Objects.equals(subtask.getSprintId(), task.getSprintId()) && inSprint.contains(subtask.getParentId())
+                        && inSprint.add(subtask.id()))
+                .toList();
+        return toTree(sprintSubtree, mapper::fromTask);
+    }
+
+    @GetMapping("/projects/{projectId}/full")
+    @Operation(
+            summary = "Отримати повне дерево проєкту",
+            description = "Повертає проєкт з активними спринтами, беклогом та деревами їх задач за один запит (три запити до БД). " +
+                    "depth обмежує глибину: 1 - лише спринти та беклог, 2 - з кореневими задачами і т.д., без depth - усі рівні"
+    )
+    public TreeNode getProjectTree(@PathVariable long projectId, @Nullable @RequestParam(required = false) Integer depth) {
+        log.info("get project {} full tree, depth={}", projectId, depth);
+        if (depth != null && depth < 1) {
+            throw new IllegalRequestDataException("depth must be positive");
+        }
+        NodeTo project = mapper.fromProject(catalog.get().getExisted(projectId));
+        List<SprintTo> sprintTos = new ArrayList<>(sprintMapper.toToList(sprintRepository.getAllEnabledByProject(projectId)));
+        sprintTos.add(new SprintTo(BACKLOG_ID, "Backlog", null, projectId));
+        boolean tasksLoaded = depth == null || depth > 1;
+        Map<Long, List<Task>> tasksBySprint = !tasksLoaded ? Map.of() :
+                taskRepository.findTreeByProjectId(projectId, depth == null ? Integer.MAX_VALUE : depth - 1).stream()
+                        .collect(Collectors.groupingBy(task -> task.getSprintId() == null ? BACKLOG_ID : task.getSprintId()));
+        List<TreeNode> sprints = sprintTos.stream()
+                .map(sprintTo -> new TreeNode(mapper.fromSprint(sprintTo),
+                        tasksLoaded ? toTaskTree(tasksBySprint.getOrDefault(sprintTo.id(), List.of())) : List.of(), tasksLoaded))
+                .toList();
+        return new TreeNode(project, sprints, true);
+    }
+
+    private List<TreeNode> toTaskTree(List<Task> tasks) {
+        return Forest.of(tasks.stream().map(mapper::fromTask).toList()).map(TreeRestController::toDepthLimitedNode);
+    }
+
+    //  subtasks below the depth limit are not fetched: the task is left for lazy loading by getSubtasks
+    private static TreeNode toDepthLimitedNode(NodeTo task, List<TreeNode> subNodes) {
+        boolean hasSubtasks = task.getRollup() != null && !task.getRollup().statuses().isEmpty();
+        return new TreeNode(task, subNodes, !subNodes.isEmpty() || !hasSubtasks);
     }
 }
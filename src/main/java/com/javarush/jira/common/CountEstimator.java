@@ -0,0 +1,35 @@
+package com.javarush.jira.common;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.javarush.jira.common.to.PageTo.Total;
+import com.javarush.jira.common.util.JsonUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cheap total for paged lists: rows are counted exactly up to the limit,
+ * above it the row estimate of the query plan is returned instead of a full scan.
+ */
+@Component
+@RequiredArgsConstructor
+public class CountEstimator {
+    public static final long EXACT_COUNT_LIMIT = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Total count(String query, Object... args) {
+        return count(EXACT_COUNT_LIMIT, query, args);
+    }
+
+    // query is a plain SELECT without ORDER BY/LIMIT, selected columns do not matter
+    public Total count(long exactLimit, String query, Object... args) {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM (" + query + " LIMIT " + (exactLimit + 1) + ") q", Long.class, args);
+        if (count <= exactLimit) {
+            return new Total(count, true);
+        }
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + query, String.class, args);
+        long estimate = JsonUtil.readValue(plan, JsonNode.class).path(0).path("Plan").path("Plan Rows").asLong();
+        return new Total(Math.max(estimate, count), false);
+    }
+}
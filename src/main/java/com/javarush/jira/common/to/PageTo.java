@@ -0,0 +1,24 @@
+package com.javarush.jira.common.to;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+// next: opaque cursor of the following page, null for the last page
+// total: count of all rows, only when requested
+public record PageTo<T>(List<T> content, @Nullable String next,
+                        @Nullable @JsonInclude(JsonInclude.Include.NON_NULL) Total total) {
+
+    public PageTo(List<T> content, @Nullable String next) {
+        this(content, next, null);
+    }
+
+    public PageTo<T> withTotal(@Nullable Total total) {
+        return new PageTo<>(content, next, total);
+    }
+
+    // exact = false: count is the planner estimate
+    public record Total(long count, boolean exact) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.javarush.jira.common.util;
+
+import com.javarush.jira.common.HasIdAndParentId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Trees of id/parentId nodes built in two linear passes without boxing: ids are indexed by an open addressing
+ * long -> int map, children of all nodes are ranges of one int array, traversal uses an int array stack.
+ * <p>
+ * Roots are the nodes without parent followed by the nodes whose parent is not in the list,
+ * siblings keep the order of the source list.
+ */
+public final class Forest<T extends HasIdAndParentId> {
+    private static final int NO_PARENT = -1;
+    private static final int ORPHAN = -2;
+
+    private final List<T> nodes;
+    private final int[] roots;
+    // children of node i: children[childStart[i]] .. children[childStart[i + 1] - 1]
+    private final int[] childStart;
+    private final int[] children;
+
+    private Forest(List<T> nodes, int[] roots, int[] childStart, int[] children) {
+        this.nodes = nodes;
+        this.roots = roots;
+        this.childStart = childStart;
+        this.children = children;
+    }
+
+    public static <T extends HasIdAndParentId> Forest<T> of(List<T> nodes) {
+        int size = nodes.size();
+        LongIntHashMap index = new LongIntHashMap(size);
+        for (int i = 0; i < size; i++) {
+            index.put(nodes.get(i).id(), i);
+        }
+        int[] parents = new int[size];
+        int[] childStart = new int[size + 1];
+        int rootCount = 0;
+        for (int i = 0; i < size; i++) {
+            Long parentId = nodes.get(i).getParentId();
+            int parent = parentId == null ? NO_PARENT : index.get(parentId);
+            if (parent >= 0) {
+                childStart[parent + 1]++;
+            } else {
+                parent = parentId == null ? NO_PARENT : ORPHAN;
+                rootCount++;
+            }
+            parents[i] = parent;
+        }
+        for (int i = 0; i < size; i++) {
+            childStart[i + 1] += childStart[i];
+        }
+        int[] children = new int[childStart[size]];
+        int[] next = Arrays.copyOf(childStart, size);
+        int[] roots = new int[rootCount];
+        int root = 0;
+        for (int i = 0; i < size; i++) {
+            int parent = parents[i];
+            if (parent >= 0) {
+                children[next[parent]++] = i;
+            } else if (parent == NO_PARENT) {
+                roots[root++] = i;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (parents[i] == ORPHAN) {
+                roots[root++] = i;
+            }
+        }
+        return new Forest<>(nodes, roots, childStart, children);
+    }
+
+    // every root followed by its subtree, depth first
+    public List<T> preOrder() {
+        int[] order = preOrderIndexes();
+        List<T> result = new ArrayList<>(order.length);
+        for (int i : order) {
+            result.add(nodes.get(i));
+        }
+        return result;
+    }
+
+    // nested nodes: the creator gets the source node and already created children
+    @SuppressWarnings("unchecked")
+    public <R> List<R> map(BiFunction<T, List<R>, R> nodeCreator) {
+        int[] order = preOrderIndexes();
+        Object[] mapped = new Object[nodes.size()];
+        // reversed pre-order creates children before their parents
+        for (int k = order.length - 1; k >= 0; k--) {
+            int i = order[k];
+            int from = childStart[i];
+            int to = childStart[i + 1];
+            List<R> subNodes;
+            if (from == to) {
+                subNodes = List.of();
+            } else {
+                Object[] subArray = new Object[to - from];
+                for (int c = from; c < to; c++) {
+                    subArray[c - from] = mapped[children[c]];
+                }
+                subNodes = (List<R>) Arrays.asList(subArray);
+            }
+            mapped[i] = nodeCreator.apply(nodes.get(i), subNodes);
+        }
+        List<R> result = new ArrayList<>(roots.length);
+        for (int root : roots) {
+            result.add((R) mapped[root]);
+        }
+        return result;
+    }
+
+    // nodes in a parent cycle are not reachable from roots and skipped
+    private int[] preOrderIndexes() {
+        int[] order = new int[nodes.size()];
+        int count = 0;
+        int[] stack = new int[nodes.size()];
+        int top = 0;
+        for (int r = roots.length - 1; r >= 0; r--) {
+            stack[top++] = roots[r];
+        }
+        while (top > 0) {
+            int i = stack[--top];
+            order[count++] = i;
+            for (int c = childStart[i + 1] - 1; c >= childStart[i]; c--) {
+                stack[top++] = children[c];
+            }
+        }
+        return count == order.length ? order : Arrays.copyOf(order, count);
+    }
+}
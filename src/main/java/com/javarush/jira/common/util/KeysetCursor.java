@@ -0,0 +1,63 @@
+package com.javarush.jira.common.util;
+
+import com.javarush.jira.common.error.IllegalRequestDataException;
+import com.javarush.jira.common.to.PageTo;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// Position in rows ordered by (timestamp DESC, id DESC): the next page contains rows strictly after it
+public record KeysetCursor(LocalDateTime timestamp, long id) {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static final KeysetCursor FIRST = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    public static KeysetCursor decode(@Nullable String cursor) {
+        if (cursor == null) {
+            return FIRST;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), UTF_8).split("_");
+            return new KeysetCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeException | IndexOutOfBoundsException e) {
+            throw new IllegalRequestDataException("Invalid cursor '" + cursor + "'");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((timestamp + "_" + id).getBytes(UTF_8));
+    }
+
+    public static int pageSize(@Nullable Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw new IllegalRequestDataException("Page size must be positive");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    // one extra row shows whether the next page exists
+    public static Pageable limit(int size) {
+        return PageRequest.of(0, size + 1);
+    }
+
+    public static <E, T> PageTo<T> toPage(List<E> rows, int size, Function<E, KeysetCursor> keyExtractor,
+                                          Function<List<E>, List<T>> mapper) {
+        if (rows.size() <= size) {
+            return new PageTo<>(mapper.apply(rows), null);
+        }
+        List<E> content = rows.subList(0, size);
+        return new PageTo<>(mapper.apply(content), keyExtractor.apply(content.get(size - 1)).encode());
+    }
+}
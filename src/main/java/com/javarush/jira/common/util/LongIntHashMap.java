@@ -0,0 +1,45 @@
+package com.javarush.jira.common.util;
+
+import java.util.Arrays;
+
+// Open addressing long -> int map with linear probing, sized once for the expected number of keys.
+// Values must be non-negative: a negative value marks an empty slot.
+final class LongIntHashMap {
+    static final int NOT_FOUND = -1;
+
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+
+    LongIntHashMap(int expectedSize) {
+        // load factor <= 0.5
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, NOT_FOUND);
+        mask = capacity - 1;
+    }
+
+    void put(long key, int value) {
+        int slot = slot(key);
+        while (values[slot] != NOT_FOUND && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    int get(long key) {
+        for (int slot = slot(key); values[slot] != NOT_FOUND; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -1,20 +1,21 @@
 package com.javarush.jira.common.util;
 
-import com.javarush.jira.bugtracking.tree.ITreeNode;
-import com.javarush.jira.common.HasIdAndParentId;
 import com.javarush.jira.common.error.NotFoundException;
 import com.javarush.jira.common.model.TimestampEntry;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotNull;
 import lombok.experimental.UtilityClass;
 import org.jsoup.Jsoup;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.util.CollectionUtils;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.text.MessageFormat;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.function.Function;
 
 @UtilityClass
 public class Util {
@@ -46,28 +47,22 @@ public class Util {
         return result;
     }
 
-    public static <T extends HasIdAndParentId, R extends ITreeNode<T, R>> List<R> makeTree(List<T> nodes, Function<T, R> treeNodeCreator) {
-        List<R> roots = new ArrayList<>();
-        Map<Long, R> map = new HashMap<>();
-        for (T node : nodes) {
-            R treeNode = treeNodeCreator.apply(node);
-            map.put(node.id(), treeNode);
-            if (node.getParentId() == null) {
-                roots.add(treeNode);
-            }
+    // conditional GET: the response may be stored but is revalidated by If-None-Match on every use,
+    // true when the ETag matches and 304 is sent
+    public static boolean checkNotModified(@Nullable String eTag, ServletWebRequest request) {
+        return checkNotModified(eTag, CacheControl.noCache(), request);
+    }
+
+    // as above, cacheControl tells how long the stored response may be used without revalidation
+    public static boolean checkNotModified(@Nullable String eTag, CacheControl cacheControl, ServletWebRequest request) {
+        if (eTag == null) {
+            return false;
         }
-        for (T node : nodes) {
-            if (node.getParentId() != null) {
-                R parent = map.get(node.getParentId());
-                R current = map.get(node.id());
-                if (parent != null) {
-                    parent.subNodes().add(current);
-                } else {
-                    roots.add(current);
-                }
-            }
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
         }
-        return roots;
+        return request.checkNotModified(eTag);
     }
 
     public boolean isEnabled(TimestampEntry entity) {
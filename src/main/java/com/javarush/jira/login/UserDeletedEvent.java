@@ -0,0 +1,6 @@
+package com.javarush.jira.login;
+
+import com.javarush.jira.common.AppEvent;
+
+public record UserDeletedEvent(long userId) implements AppEvent {
+}
@@ -2,16 +2,31 @@ package com.javarush.jira.login.internal;
 
 import com.javarush.jira.common.BaseHandler;
 import com.javarush.jira.login.User;
+import com.javarush.jira.login.UserDeletedEvent;
 import com.javarush.jira.login.UserTo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.function.BinaryOperator;
 
 @Component
 public class UserHandler extends BaseHandler<User, UserTo, UserRepository, UserMapper> {
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public UserHandler(UserRepository repository, UserMapper mapper) {
         super(repository, mapper,
                 UsersUtil::prepareForCreate,
                 (BinaryOperator<User>) (user, dbUser) -> UsersUtil.prepareForUpdate(user, dbUser.getPassword()));
     }
+
+    //  listeners in the transaction still see the data of the user, deleted by cascade
+    @Override
+    @Transactional
+    public void delete(long id) {
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
+        super.delete(id);
+    }
 }
@@ -0,0 +1,49 @@
+package com.javarush.jira.ref;
+
+import java.util.*;
+
+import static com.javarush.jira.common.util.Util.getExisted;
+
+/**
+ * Mail notification bits compiled from MAIL_NOTIFICATION aux: code to mask and back, built once per {@link RefSnapshot}.
+ */
+public final class NotificationMasks {
+    private final Map<String, Long> masks;
+    private final String[] codes;
+    private final long[] codeMasks;
+
+    private NotificationMasks(Collection<RefTo> notificationRefs) {
+        Map<String, Long> masks = new HashMap<>();
+        notificationRefs.stream()
+                .filter(ref -> ref.getAux() != null)
+                .forEach(ref -> masks.put(ref.getCode(), ref.getLongFromAux()));
+        this.masks = Collections.unmodifiableMap(masks);
+        this.codes = masks.keySet().toArray(String[]::new);
+        this.codeMasks = Arrays.stream(codes).mapToLong(masks::get).toArray();
+    }
+
+    static NotificationMasks of(Collection<RefTo> notificationRefs) {
+        return new NotificationMasks(notificationRefs);
+    }
+
+    public long toMask(Collection<String> notifications) {
+        long mask = 0;
+        for (String code : notifications) {
+            mask |= getExisted(masks, code);
+        }
+        return mask;
+    }
+
+    public Set<String> toCodes(long mask) {
+        Set<String> notifications = null;
+        for (int i = 0; i < codes.length; i++) {
+            if ((mask & codeMasks[i]) != 0) {
+                if (notifications == null) {
+                    notifications = new HashSet<>();
+                }
+                notifications.add(codes[i]);
+            }
+        }
+        return notifications == null ? Set.of() : notifications;
+    }
+}
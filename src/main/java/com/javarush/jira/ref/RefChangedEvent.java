@@ -0,0 +1,6 @@
+package com.javarush.jira.ref;
+
+import com.javarush.jira.common.AppEvent;
+
+public record RefChangedEvent(RefType refType) implements AppEvent {
+}
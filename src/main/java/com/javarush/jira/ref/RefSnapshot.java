@@ -0,0 +1,111 @@
+package com.javarush.jira.ref;
+
+import com.javarush.jira.bugtracking.ObjectType;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static com.javarush.jira.common.util.Util.getExisted;
+
+/**
+ * Immutable state of all references: maps are unmodifiable, in id order, and never change after publishing.
+ * Views derived from the references (enabled ones, by object type prefix, status workflow, notification bits)
+ * are built with the snapshot, so readers only look them up. A change builds the next snapshot with a greater version.
+ *
+ * @param version grows with every change of the node, it starts from the load time and differs between nodes
+ * @param digests md5 of the content of each type, the same on every node with the same references: ETags
+ * @param digest  md5 of all the types
+ */
+public record RefSnapshot(long version, Map<RefType, Map<String, RefTo>> refs,
+                          Map<RefType, Map<String, RefTo>> enabledRefs,
+                          Map<RefType, Map<ObjectType, Map<String, RefTo>>> refsByObjectType,
+                          StatusTransitions statusTransitions, NotificationMasks notificationMasks,
+                          Map<RefType, String> digests, String digest) {
+
+    static RefSnapshot of(long version, List<RefTo> references) {
+        Map<RefType, List<RefTo>> byType = references.stream()
+                .collect(Collectors.groupingBy(RefTo::getRefType, () -> new EnumMap<>(RefType.class), Collectors.toList()));
+        Map<RefType, Map<String, RefTo>> refs = new EnumMap<>(RefType.class);
+        byType.forEach((type, typeRefs) -> refs.put(type, toCodeMap(typeRefs)));
+        return build(version, refs);
+    }
+
+    RefSnapshot withType(RefType type, List<RefTo> typeRefs) {
+        Map<RefType, Map<String, RefTo>> changed = new EnumMap<>(RefType.class);
+        changed.putAll(refs);
+        changed.put(type, toCodeMap(typeRefs));
+        return build(version + 1, changed);
+    }
+
+    public Map<String, RefTo> getRefs(RefType type) {
+        return getExisted(refs, type);
+    }
+
+    public Map<String, RefTo> getEnabledRefs(RefType type) {
+        return getExisted(enabledRefs, type);
+    }
+
+    public String getDigest(RefType type) {
+        return getExisted(digests, type);
+    }
+
+    //  codes of the type starting with the object type name, as "task_developer" for TASK
+    public Map<String, RefTo> getRefs(RefType type, ObjectType objectType) {
+        return getExisted(refsByObjectType, type).get(objectType);
+    }
+
+    private static RefSnapshot build(long version, Map<RefType, Map<String, RefTo>> refs) {
+        Map<RefType, Map<String, RefTo>> enabledRefs = new EnumMap<>(RefType.class);
+        Map<RefType, Map<ObjectType, Map<String, RefTo>>> refsByObjectType = new EnumMap<>(RefType.class);
+        refs.forEach((type, typeRefs) -> {
+            enabledRefs.put(type, filter(typeRefs, RefTo::isEnabled));
+            Map<ObjectType, Map<String, RefTo>> byObjectType = new EnumMap<>(ObjectType.class);
+            for (ObjectType objectType : ObjectType.values()) {
+                String prefix = objectType.name().toLowerCase();
+                byObjectType.put(objectType, filter(typeRefs, ref -> ref.getCode().startsWith(prefix)));
+            }
+            refsByObjectType.put(type, Collections.unmodifiableMap(byObjectType));
+        });
+        Map<RefType, String> digests = new EnumMap<>(RefType.class);
+        StringBuilder all = new StringBuilder();
+        refs.forEach((type, typeRefs) -> {
+            String digest = digest(typeRefs);
+            digests.put(type, digest);
+            all.append(type).append(':').append(digest).append('\n');
+        });
+        return new RefSnapshot(version, Collections.unmodifiableMap(refs), Collections.unmodifiableMap(enabledRefs),
+                Collections.unmodifiableMap(refsByObjectType),
+                StatusTransitions.of(refs.getOrDefault(RefType.TASK_STATUS, Map.of())),
+                NotificationMasks.of(refs.getOrDefault(RefType.MAIL_NOTIFICATION, Map.of()).values()),
+                Collections.unmodifiableMap(digests), DigestUtils.md5DigestAsHex(all.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    //  of everything sent to clients, in the id order of the map
+    private static String digest(Map<String, RefTo> typeRefs) {
+        StringBuilder content = new StringBuilder();
+        typeRefs.values().forEach(ref -> content.append(ref.getId()).append(':').append(ref.getCode()).append(':')
+                .append(ref.getTitle()).append(':').append(ref.getAux()).append(':').append(ref.isEnabled()).append('\n'));
+        return DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, RefTo> filter(Map<String, RefTo> typeRefs, Predicate<RefTo> predicate) {
+        Map<String, RefTo> filtered = new LinkedHashMap<>();
+        typeRefs.forEach((code, ref) -> {
+            if (predicate.test(ref)) {
+                filtered.put(code, ref);
+            }
+        });
+        return Collections.unmodifiableMap(filtered);
+    }
+
+    private static Map<String, RefTo> toCodeMap(List<RefTo> typeRefs) {
+        return Collections.unmodifiableMap(typeRefs.stream()
+                .sorted(Comparator.comparing(RefTo::getId))
+                .collect(Collectors.toMap(RefTo::getCode, Function.identity(), (ref1, ref2) -> ref1, LinkedHashMap::new)));
+    }
+}
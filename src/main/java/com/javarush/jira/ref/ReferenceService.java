@@ -9,34 +9,39 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.javarush.jira.common.util.Util.getExisted;
 
+/**
+ * References are read lock-free from an immutable {@link RefSnapshot}; a change reloads the changed type,
+ * builds the next snapshot and publishes it by one atomic swap. Changes are serialized, readers never wait.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ReferenceService {
-    static Map<RefType, Map<String, RefTo>> refSelect;
+    private static final AtomicReference<RefSnapshot> snapshot = new AtomicReference<>();
     private final ReferenceRepository repository;
     private final ReferenceMapper mapper;
 
+    public static RefSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    public static long getVersion() {
+        return snapshot.get().version();
+    }
+
     public static Map<String, RefTo> getRefs(RefType refType) {
         log.debug("get by type {}", refType);
-        return getExisted(refSelect, refType);
+        return snapshot.get().getRefs(refType);
     }
 
     public static Map<String, RefTo> getRefsByTypeStartWithObjectType(RefType refType, @NonNull ObjectType objectType) {
         log.debug("get by type {} start with objectType {}", refType, objectType);
-        String type = objectType.name().toLowerCase();
-        return getRefs(refType).entrySet().stream()
-                .filter(entry -> entry.getKey().startsWith(type))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        return snapshot.get().getRefs(refType, objectType);
     }
 
     public static RefTo getRefTo(RefType refType, String code) {
@@ -44,28 +49,29 @@ public class ReferenceService {
         return getExisted(getRefs(refType), code);
     }
 
-    public static Map<String, RefTo> filterEnabled(Map<String, RefTo> unfilteredRefs) {
-        log.debug("filterEnabled");
-        return unfilteredRefs.entrySet().stream()
-                .filter(ref -> ref.getValue().isEnabled())
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    public static Map<String, RefTo> getEnabledRefs(RefType refType) {
+        return snapshot.get().getEnabledRefs(refType);
     }
 
+    public static StatusTransitions getStatusTransitions() {
+        return snapshot.get().statusTransitions();
+    }
+
+    public static NotificationMasks getNotificationMasks() {
+        return snapshot.get().notificationMasks();
+    }
+
+    //  load time as the first version: versions of the previous run are not repeated for another content
     @PostConstruct
-    void initialize() {
+    synchronized void initialize() {
         log.info("init loading");
-        List<RefTo> references = mapper.toToList(repository.findAllByOrderByIdAsc());
-        refSelect = references.stream()
-                .collect(Collectors.groupingBy(RefTo::getRefType,
-                        Collectors.collectingAndThen(Collectors.toMap(RefTo::getCode, Function.identity(), (ref1, ref2) -> ref1, LinkedHashMap::new), Collections::unmodifiableMap)));
-
+        snapshot.set(RefSnapshot.of(System.currentTimeMillis(), mapper.toToList(repository.findAllByOrderByIdAsc())));
     }
 
-    public void updateRefs(RefType type) {
-        log.debug("update by type {}", type);
-        List<RefTo> refTos = mapper.toToList(repository.getByType(type));
-        Map<String, RefTo> refToMap = refTos.stream()
-                .collect(Collectors.toMap(RefTo::getCode, Function.identity()));
-        refSelect.put(type, refToMap);
+    //  call after the change is committed, the reload must see it
+    public synchronized void updateRefs(RefType type) {
+        RefSnapshot updated = snapshot.get().withType(type, mapper.toToList(repository.getByType(type)));
+        log.debug("update by type {} to version {}", type, updated.version());
+        snapshot.set(updated);
     }
 }
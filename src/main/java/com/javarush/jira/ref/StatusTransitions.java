@@ -0,0 +1,73 @@
+package com.javarush.jira.ref;
+
+import org.springframework.lang.Nullable;
+
+import java.util.*;
+
+import static com.javarush.jira.common.util.Util.getExisted;
+
+/**
+ * Task status workflow compiled from TASK_STATUS aux ("next1,next2|userType"): statuses get dense indexes,
+ * transitions are a bitset row per status (staying in the status is always possible).
+ * Built once per {@link RefSnapshot}, lookups don't allocate.
+ */
+public final class StatusTransitions {
+    private final Map<String, Integer> indexes;
+    private final BitSet[] transitions;
+    private final String[] userTypes;
+    private final List<Map<String, RefTo>> possibleRefs;
+
+    private StatusTransitions(Map<String, RefTo> statusRefs) {
+        int size = statusRefs.size();
+        Map<String, Integer> indexes = new HashMap<>();
+        statusRefs.keySet().forEach(code -> indexes.put(code, indexes.size()));
+        this.indexes = Collections.unmodifiableMap(indexes);
+        this.transitions = new BitSet[size];
+        this.userTypes = new String[size];
+        List<Map<String, RefTo>> possibleRefs = new ArrayList<>(size);
+        for (RefTo ref : statusRefs.values()) {
+            int from = indexes.get(ref.getCode());
+            BitSet next = new BitSet(size);
+            next.set(from);
+            String aux = ref.getAux(0);
+            if (aux != null) {
+                Arrays.stream(aux.split(",")).map(indexes::get).filter(Objects::nonNull).forEach(next::set);
+            }
+            transitions[from] = next;
+            userTypes[from] = ref.getAux(1);
+            Map<String, RefTo> possible = new LinkedHashMap<>();
+            statusRefs.forEach((code, status) -> {
+                if (next.get(indexes.get(code))) {
+                    possible.put(code, status);
+                }
+            });
+            possibleRefs.add(Collections.unmodifiableMap(possible));
+        }
+        this.possibleRefs = List.copyOf(possibleRefs);
+    }
+
+    static StatusTransitions of(Map<String, RefTo> statusRefs) {
+        return new StatusTransitions(statusRefs);
+    }
+
+    //  false for an unknown target status
+    public boolean isChangePossible(String from, String to) {
+        Integer toIndex = indexes.get(to);
+        return toIndex != null && transitions[indexOf(from)].get(toIndex);
+    }
+
+    //  statuses reachable from the status, itself included, in the reference order
+    public Map<String, RefTo> getPossibleRefs(String from) {
+        return possibleRefs.get(indexOf(from));
+    }
+
+    //  user type assigned automatically in the status
+    @Nullable
+    public String getUserType(String status) {
+        return userTypes[indexOf(status)];
+    }
+
+    public int indexOf(String status) {
+        return getExisted(indexes, status);
+    }
+}
@@ -0,0 +1,160 @@
+package com.javarush.jira.ref.internal;
+
+import com.javarush.jira.ref.RefChangedEvent;
+import com.javarush.jira.ref.RefType;
+import com.javarush.jira.ref.ReferenceService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * Keeps {@link ReferenceService} of every node in sync over PostgreSQL LISTEN/NOTIFY, without an extra broker.
+ * <p>
+ * A committed change reloads the type on its node and notifies the others with "nodeId:TYPE".
+ * Each node listens on a dedicated connection and reloads the notified type; the connection is reopened
+ * with backoff when lost. Notifications are not stored, so the ones sent while the node was not listening are lost:
+ * references are reconciled by per type checksums after every (re)connect and periodically.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReferenceSync {
+    public static final String CHANNEL = "jirarush_ref_changed";
+    private static final String CHECKSUMS = """
+            SELECT ref_type, md5(string_agg(id || ':' || code || ':' || title || ':' || coalesce(aux, '') || ':' || coalesce(endpoint::text, ''),
+                                            ',' ORDER BY id))
+            FROM reference GROUP BY ref_type
+            """;
+    private static final int POLL_MILLIS = 5_000;
+    private static final int VALID_SECONDS = 5;
+    private static final long MIN_BACKOFF_MILLIS = 1_000;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final ReferenceService service;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    //  checksums the references were reconciled with, guarded by reconcile()
+    private final Map<RefType, String> checksums = new EnumMap<>(RefType.class);
+    private volatile boolean running;
+    private Thread listener;
+
+    @PostConstruct
+    void start() {
+        running = true;
+        listener = new Thread(this::listen, "ref-sync");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        listener.interrupt();
+    }
+
+    //  the reload must see the change, NOTIFY in the changing transaction would be delivered at its commit anyway
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRefChanged(RefChangedEvent event) {
+        RefType type = event.refType();
+        service.updateRefs(type);
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, nodeId + ':' + type);
+        } catch (DataAccessException e) {
+            log.warn("notify of {} change failed, other nodes reconcile it later: {}", type, e.getMessage());
+        }
+    }
+
+    //  reloads types changed since the last reconciliation; the checksum is read before the data,
+    //  so a change in between only makes the next reconciliation reload the type again
+    @Scheduled(fixedDelayString = "${app.references.reconcile-interval:PT1M}",
+            initialDelayString = "${app.references.reconcile-interval:PT1M}")
+    public synchronized void reconcile() {
+        Map<RefType, String> actual = new EnumMap<>(RefType.class);
+        jdbcTemplate.query(CHECKSUMS, rs -> {
+            actual.put(RefType.values()[rs.getInt(1)], rs.getString(2));
+        });
+        Set<RefType> types = EnumSet.noneOf(RefType.class);
+        types.addAll(actual.keySet());
+        types.addAll(checksums.keySet());
+        types.removeIf(type -> Objects.equals(actual.get(type), checksums.get(type)));
+        if (!types.isEmpty()) {
+            log.info("reconcile references {}", types);
+            types.forEach(service::updateRefs);
+            checksums.clear();
+            checksums.putAll(actual);
+        }
+    }
+
+    private void listen() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("listen {}", CHANNEL);
+                backoff = MIN_BACKOFF_MILLIS;
+                reconcile();
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications == null || notifications.length == 0) {
+                        if (!connection.isValid(VALID_SECONDS)) {
+                            throw new SQLException("connection is not valid");
+                        }
+                        continue;
+                    }
+                    Arrays.stream(notifications).map(PGNotification::getParameter).forEach(this::onNotification);
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    log.warn("listening {} failed, reconnect in {} ms: {}", CHANNEL, backoff, e.getMessage());
+                    sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                }
+            }
+        }
+        log.info("stop listening {}", CHANNEL);
+    }
+
+    private void onNotification(String payload) {
+        int separator = payload.lastIndexOf(':');
+        if (payload.substring(0, Math.max(separator, 0)).equals(nodeId)) {
+            return;
+        }
+        try {
+            RefType type = RefType.valueOf(payload.substring(separator + 1));
+            log.debug("references {} changed on another node", type);
+            service.updateRefs(type);
+        } catch (IllegalArgumentException e) {
+            log.warn("unknown {} notification '{}'", CHANNEL, payload);
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.javarush.jira.ref.internal.web;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.javarush.jira.common.util.Util;
+import com.javarush.jira.ref.RefSnapshot;
+import com.javarush.jira.ref.RefType;
+import com.javarush.jira.ref.ReferenceService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * All enabled references in one response for UI clients, to be loaded once and kept by the client.
+ * Reused without a request for {@link #MAX_AGE}, then revalidated by the content digest ETag, the same on all nodes.
+ */
+@Slf4j
+@RestController
+@RequestMapping(value = ReferenceBundleController.REST_URL, produces = MediaType.APPLICATION_JSON_VALUE)
+public class ReferenceBundleController {
+    static final String REST_URL = "/api/refs";
+    //  a reference change reaches the clients in this time at most; the server checks against the actual references anyway
+    static final Duration MAX_AGE = Duration.ofMinutes(5);
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(MAX_AGE).cachePrivate().mustRevalidate();
+
+    //  code is the key of the map, references of the bundle are enabled
+    public record RefItemTo(String title, @Nullable @JsonInclude(JsonInclude.Include.NON_NULL) String aux) {
+    }
+
+    @GetMapping
+    @Operation(
+            summary = "Отримати всі активні довідники",
+            description = "Повертає активні значення всіх довідників: тип -> код -> назва і aux; " +
+                    "ETag - хеш вмісту довідників, 304 поки довідники не змінені, відповідь можна використовувати 5 хвилин без перевірки"
+    )
+    public Map<RefType, Map<String, RefItemTo>> getAll(ServletWebRequest request) {
+        RefSnapshot snapshot = ReferenceService.getSnapshot();
+        if (Util.checkNotModified(snapshot.digest(), CACHE_CONTROL, request)) {
+            return null;
+        }
+        log.debug("get all enabled refs of version {}", snapshot.version());
+        Map<RefType, Map<String, RefItemTo>> bundle = new EnumMap<>(RefType.class);
+        snapshot.enabledRefs().forEach((type, refs) -> {
+            Map<String, RefItemTo> items = new LinkedHashMap<>();
+            refs.forEach((code, ref) -> items.put(code, new RefItemTo(ref.getTitle(), ref.getAux())));
+            bundle.put(type, items);
+        });
+        return bundle;
+    }
+}
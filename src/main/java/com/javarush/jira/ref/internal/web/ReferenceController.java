@@ -1,5 +1,8 @@
 package com.javarush.jira.ref.internal.web;
 
+import com.javarush.jira.common.util.Util;
+import com.javarush.jira.ref.RefChangedEvent;
+import com.javarush.jira.ref.RefSnapshot;
 import com.javarush.jira.ref.RefTo;
 import com.javarush.jira.ref.RefType;
 import com.javarush.jira.ref.ReferenceService;
@@ -10,11 +13,12 @@ import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.Map;
 
@@ -29,16 +33,21 @@ import static com.javarush.jira.common.util.validation.ValidationUtil.checkNew;
 public class ReferenceController {
     static final String REST_URL = "/api/admin/refs";
     private ReferenceMapper mapper;
-    private ReferenceService service;
+    private ApplicationEventPublisher eventPublisher;
     private ReferenceRepository repository;
 
     @GetMapping("/{type}")
     @Operation(
             summary = "Отримати всі значення довідника за типом",
-            description = "Повертає мапу всіх значень довідника певного типу у форматі RefTo"
+            description = "Повертає мапу всіх значень довідника певного типу у форматі RefTo; " +
+                    "ETag - хеш вмісту довідника, 304 поки довідник не змінений"
     )
-    public Map<String, RefTo> getRefsByType(@PathVariable RefType type) {
-        return ReferenceService.getRefs(type);
+    public Map<String, RefTo> getRefsByType(@PathVariable RefType type, ServletWebRequest request) {
+        RefSnapshot snapshot = ReferenceService.getSnapshot();
+        if (Util.checkNotModified(snapshot.getDigest(type), request)) {
+            return null;
+        }
+        return snapshot.getRefs(type);
     }
 
     @GetMapping("/{type}/{code}")
@@ -60,7 +69,7 @@ public class ReferenceController {
         log.debug("delete with type {}, code {}", type, code);
         RefTo ref = ReferenceService.getRefTo(type, code);
         repository.deleteExisted(ref.id());
-        service.updateRefs(type);
+        eventPublisher.publishEvent(new RefChangedEvent(type));
     }
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -74,13 +83,12 @@ public class ReferenceController {
         Reference ref = repository.save(mapper.toEntity(refTo));
         refTo.setId(ref.id());
         RefType refType = refTo.getRefType();
-        service.updateRefs(refType);
+        eventPublisher.publishEvent(new RefChangedEvent(refType));
         return createdResponse(REST_URL + "/{type}/{code}", refTo, refType, refTo.getCode());
     }
 
     @PutMapping("/{type}/{code}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    @Transactional
     @Operation(
             summary = "Оновити назву значення довідника",
             description = "Оновлює поле title для обраного елемента довідника за типом і кодом"
@@ -90,12 +98,11 @@ public class ReferenceController {
         Reference ref = getExisted(type, code);
         ref.setTitle(title);
         repository.save(ref);
-        ReferenceService.getRefTo(type, code).setTitle(title);
+        eventPublisher.publishEvent(new RefChangedEvent(type));
     }
 
     @PatchMapping("/{type}/{code}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    @Transactional
     @Operation(
             summary = "Активувати/деактивувати значення довідника",
             description = "Змінює статус enabled (активний/неактивний) для елемента довідника"
@@ -105,7 +112,7 @@ public class ReferenceController {
         Reference ref = getExisted(type, code);
         ref.setEnabled(enabled);
         repository.save(ref);
-        ReferenceService.getRefTo(type, code).setEnabled(enabled);
+        eventPublisher.publishEvent(new RefChangedEvent(type));
     }
 
     private Reference getExisted(RefType type, String code) {
@@ -324,3 +324,32 @@ values (6, 1, '2023-05-15 09:05:10', null, 'Data', null, 3, 'epic', 'in_progress
        (5, 118, '2023-05-16 11:10:10', null, 'UI tab of tasks', null, null, null, null, 'high'),
        (11, 118, '2023-05-16 12:30:10', null, 'UI tab of tasks', null, 2, null, null, null);
 
+update TASK t
+set DESCRIPTION   = (select a.DESCRIPTION from ACTIVITY a where a.TASK_ID = t.ID and a.DESCRIPTION is not null order by a.UPDATED desc, a.ID desc limit 1),
+    PRIORITY_CODE = (select a.PRIORITY_CODE from ACTIVITY a where a.TASK_ID = t.ID and a.PRIORITY_CODE is not null order by a.UPDATED desc, a.ID desc limit 1),
+    ESTIMATE      = (select a.ESTIMATE from ACTIVITY a where a.TASK_ID = t.ID and a.ESTIMATE is not null order by a.UPDATED desc, a.ID desc limit 1),
+    UPDATED       = (select max(a.UPDATED) from ACTIVITY a where a.TASK_ID = t.ID);
+
+with recursive PATHS as (select ID, array [ID] as PATH
+                         from TASK
+                         where PARENT_ID is null
+                         union all
+                         select t.ID, p.PATH || t.ID
+                         from TASK t
+                                  join PATHS p on t.PARENT_ID = p.ID)
+update TASK t
+set PATH = p.PATH
+from PATHS p
+where t.ID = p.ID;
+
+update TASK t
+set SUBTASK_ESTIMATE = r.ESTIMATE,
+    SUBTASK_STATUSES = r.STATUSES
+from (select s.ANCESTOR_ID, sum(s.ESTIMATE) as ESTIMATE, jsonb_object_agg(s.STATUS_CODE, s.COUNT) as STATUSES
+      from (select a.ANCESTOR_ID, d.STATUS_CODE, coalesce(sum(d.ESTIMATE), 0) as ESTIMATE, count(*) as COUNT
+            from TASK d
+                     cross join unnest(d.PATH) as a(ANCESTOR_ID)
+            where a.ANCESTOR_ID <> d.ID
+            group by a.ANCESTOR_ID, d.STATUS_CODE) s
+      group by s.ANCESTOR_ID) r
+where t.ID = r.ANCESTOR_ID;
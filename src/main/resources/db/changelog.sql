@@ -329,3 +329,93 @@ values ('todo', 'ToDo', 3, 'in_progress,canceled|'),
 
 drop index UK_USER_BELONG;
 create unique index UK_USER_BELONG on USER_BELONG (OBJECT_ID, OBJECT_TYPE, USER_ID, USER_TYPE_CODE) where ENDPOINT is null;
+
+--changeset jirarush:task_materialized_state
+
+alter table TASK
+    add column DESCRIPTION   varchar(4096),
+    add column PRIORITY_CODE varchar(32),
+    add column ESTIMATE      integer,
+    add column UPDATED       timestamp;
+
+create index IX_ACTIVITY_TASK_ID_UPDATED on ACTIVITY (TASK_ID, UPDATED desc, ID desc);
+
+update TASK t
+set DESCRIPTION   = (select a.DESCRIPTION from ACTIVITY a where a.TASK_ID = t.ID and a.DESCRIPTION is not null order by a.UPDATED desc, a.ID desc limit 1),
+    PRIORITY_CODE = (select a.PRIORITY_CODE from ACTIVITY a where a.TASK_ID = t.ID and a.PRIORITY_CODE is not null order by a.UPDATED desc, a.ID desc limit 1),
+    ESTIMATE      = (select a.ESTIMATE from ACTIVITY a where a.TASK_ID = t.ID and a.ESTIMATE is not null order by a.UPDATED desc, a.ID desc limit 1),
+    UPDATED       = (select max(a.UPDATED) from ACTIVITY a where a.TASK_ID = t.ID);
+
+--changeset jirarush:task_keyset_indexes
+
+create index IX_TASK_PROJECT_ID_STARTPOINT on TASK (PROJECT_ID, STARTPOINT desc, ID desc);
+create index IX_TASK_SPRINT_ID_STARTPOINT on TASK (SPRINT_ID, STARTPOINT desc, ID desc);
+create index IX_TASK_BACKLOG_STARTPOINT on TASK (PROJECT_ID, STARTPOINT desc, ID desc) where SPRINT_ID is null;
+create index IX_TASK_PARENT_ID on TASK (PARENT_ID);
+
+--changeset jirarush:task_search_indexes
+
+create index IX_TASK_PROJECT_ID_UPDATED on TASK (PROJECT_ID, coalesce(UPDATED, STARTPOINT) desc, ID desc);
+create index IX_TASK_PROJECT_ID_STATUS_CODE on TASK (PROJECT_ID, STATUS_CODE, STARTPOINT desc, ID desc);
+create index IX_TASK_SPRINT_ID_STATUS_CODE on TASK (SPRINT_ID, STATUS_CODE, STARTPOINT desc, ID desc);
+create index IX_TASK_TAG_TAG on TASK_TAG (TAG);
+create index IX_USER_BELONG_ACTIVE_ASSIGNEE on USER_BELONG (USER_ID, OBJECT_TYPE, USER_TYPE_CODE, OBJECT_ID) where ENDPOINT is null;
+
+--changeset jirarush:task_path
+
+-- ids from the root task down to the task itself
+alter table TASK
+    add column PATH bigint[];
+
+with recursive PATHS as (select ID, array [ID] as PATH
+                         from TASK
+                         where PARENT_ID is null
+                         union all
+                         select t.ID, p.PATH || t.ID
+                         from TASK t
+                                  join PATHS p on t.PARENT_ID = p.ID)
+update TASK t
+set PATH = p.PATH
+from PATHS p
+where t.ID = p.ID;
+
+create index IX_TASK_PATH on TASK using gin (PATH);
+
+--changeset jirarush:task_rollup
+
+-- aggregates over all descendants of the task (the task itself is not included):
+-- sum of estimates and number of tasks per status code
+alter table TASK
+    add column SUBTASK_ESTIMATE bigint default 0 not null;
+alter table TASK
+    add column SUBTASK_STATUSES jsonb default '{}' not null;
+
+update TASK t
+set SUBTASK_ESTIMATE = r.ESTIMATE,
+    SUBTASK_STATUSES = r.STATUSES
+from (select s.ANCESTOR_ID, sum(s.ESTIMATE) as ESTIMATE, jsonb_object_agg(s.STATUS_CODE, s.COUNT) as STATUSES
+      from (select a.ANCESTOR_ID, d.STATUS_CODE, coalesce(sum(d.ESTIMATE), 0) as ESTIMATE, count(*) as COUNT
+            from TASK d
+                     cross join unnest(d.PATH) as a(ANCESTOR_ID)
+            where a.ANCESTOR_ID <> d.ID
+            group by a.ANCESTOR_ID, d.STATUS_CODE) s
+      group by s.ANCESTOR_ID) r
+where t.ID = r.ANCESTOR_ID;
+
+--changeset jirarush:change_versions
+
+-- change counters for conditional GET: project - the project and its sprints, sprint - its tasks
+alter table PROJECT
+    add column VERSION bigint default 0 not null;
+alter table SPRINT
+    add column VERSION bigint default 0 not null;
+
+--changeset jirarush:lookup_and_fk_indexes
+
+-- lookups by object and foreign keys of cascade deletes; TASK and ACTIVITY.TASK_ID are covered by the keyset indexes,
+-- SPRINT.PROJECT_ID by UK_SPRINT_PROJECT_CODE, UK_USER_BELONG is partial and serves active assignments only
+create index IX_ATTACHMENT_OBJECT on ATTACHMENT (OBJECT_ID, OBJECT_TYPE);
+create index IX_USER_BELONG_OBJECT on USER_BELONG (OBJECT_ID, OBJECT_TYPE);
+create index IX_ATTACHMENT_USER_ID on ATTACHMENT (USER_ID);
+create index IX_ACTIVITY_AUTHOR_ID on ACTIVITY (AUTHOR_ID);
+create index IX_PROJECT_PARENT_ID on PROJECT (PARENT_ID);
@@ -1,12 +1,21 @@
 package com.javarush.jira;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.javarush.jira.bugtracking.AssignmentCache;
+import com.javarush.jira.bugtracking.project.ProjectCatalog;
+import com.javarush.jira.bugtracking.sprint.SprintCapacityService;
+import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlConfig;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.ResultActions;
-import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
 //https://docs.spring.io/spring-boot/docs/current/reference/html/spring-boot-features.html#boot-features-testing-spring-boot-applications
 @Sql(scripts = {"classpath:db/changelog.sql", "classpath:data.sql"}, config = @SqlConfig(encoding = "UTF-8"))
@@ -17,7 +26,25 @@ public abstract class AbstractControllerTest extends BaseTests {
     @Autowired
     private MockMvc mockMvc;
 
-    protected ResultActions perform(MockHttpServletRequestBuilder builder) throws Exception {
+    @Autowired
+    private ProjectCatalog projectCatalog;
+
+    @Autowired
+    private AssignmentCache assignmentCache;
+
+    @Autowired
+    private SprintCapacityService sprintCapacityService;
+
+    //  every test starts from the reloaded database with versions counted anew,
+    //  so the caches must not keep the data of the previous test under the same versions
+    @BeforeEach
+    void clearCaches() {
+        ((AtomicReference<?>) Objects.requireNonNull(ReflectionTestUtils.getField(projectCatalog, "snapshot"))).set(null);
+        ((Cache<?, ?>) Objects.requireNonNull(ReflectionTestUtils.getField(assignmentCache, "cache"))).invalidateAll();
+        ((Cache<?, ?>) Objects.requireNonNull(ReflectionTestUtils.getField(sprintCapacityService, "reports"))).invalidateAll();
+    }
+
+    protected ResultActions perform(RequestBuilder builder) throws Exception {
         return mockMvc.perform(builder);
     }
 }
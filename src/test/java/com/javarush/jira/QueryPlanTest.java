@@ -0,0 +1,295 @@
+package com.javarush.jira;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.javarush.jira.bugtracking.ObjectType;
+import com.javarush.jira.common.util.JsonUtil;
+import com.javarush.jira.ref.RefType;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Index coverage of the repository queries over production-like volume (plan-data.sql).
+ * Every {@link Query} method is called with sample arguments in a rolled back transaction, its JDBC statements are
+ * recorded with their parameters and explained with the same parameters. A sequential scan of a large table fails the build.
+ */
+@Import(QueryPlanTest.RecordingConfig.class)
+class QueryPlanTest extends BaseTests {
+    private static final long LARGE_TABLE_ROWS = 1000;
+
+    // method name -> why a full scan is expected
+    private static final Map<String, String> FULL_SCAN_EXPECTED = Map.of(
+            "getAllEnabled", "returns the whole table");
+
+    @Autowired
+    private ApplicationContext context;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private StatementRecorder recorder;
+
+    @Test
+    @Sql(scripts = {"classpath:db/changelog.sql", "classpath:data.sql", "classpath:plan-data.sql"}, config = @SqlConfig(encoding = "UTF-8"))
+    void repositoryQueriesUseIndexes() {
+        Set<String> largeTables = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT relname FROM pg_class WHERE relkind = 'r' AND relnamespace = 'public'::regnamespace AND reltuples >= ?",
+                String.class, LARGE_TABLE_ROWS));
+        assertTrue(largeTables.containsAll(Set.of("task", "activity", "user_belong", "attachment", "sprint")), "plan data is not loaded: " + largeTables);
+
+        List<String> violations = new ArrayList<>();
+        int explained = 0;
+        for (Object repository : context.getBeansOfType(Repository.class).values()) {
+            for (Method method : queryMethods(repository)) {
+                String name = method.getDeclaringClass().getSimpleName() + '.' + method.getName() + " of " + repositoryName(repository);
+                List<String> plans;
+                try {
+                    plans = explain(repository, method);
+                } catch (RuntimeException e) {
+                    violations.add(name + ": " + e.getMessage());
+                    continue;
+                }
+                if (plans.isEmpty()) {
+                    violations.add(name + ": no statement executed");
+                }
+                for (String plan : plans) {
+                    explained++;
+                    if (!FULL_SCAN_EXPECTED.containsKey(method.getName())) {
+                        seqScans(JsonUtil.readValue(plan, JsonNode.class).path(0).path("Plan"), largeTables)
+                                .forEach(relation -> violations.add(name + ": Seq Scan on " + relation));
+                    }
+                }
+            }
+        }
+        assertTrue(explained > 40, "too few statements explained: " + explained);
+        assertTrue(violations.isEmpty(), "Sequential scans of large tables:\n" + String.join("\n", violations));
+    }
+
+    @Test
+    void foreignKeysHaveIndexes() {
+        List<String> notIndexed = jdbcTemplate.queryForList("""
+                SELECT c.conrelid::regclass || '.' || c.conname FROM pg_constraint c
+                WHERE c.contype = 'f' AND c.connamespace = 'public'::regnamespace
+                  AND NOT EXISTS (SELECT 1 FROM pg_index i
+                                  WHERE i.indrelid = c.conrelid AND i.indpred IS NULL AND i.indkey[0] = c.conkey[1])
+                """, String.class);
+        assertTrue(notIndexed.isEmpty(), "Foreign keys without index, their cascades scan the whole table: " + notIndexed);
+    }
+
+    private static List<Method> queryMethods(Object repository) {
+        return Arrays.stream(AopProxyUtils.proxiedUserInterfaces(repository))
+                .filter(type -> type.getPackageName().startsWith("com.javarush.jira"))
+                .flatMap(type -> Arrays.stream(type.getMethods()))
+                .filter(method -> method.isAnnotationPresent(Query.class))
+                .sorted(Comparator.comparing(Method::toString))
+                .toList();
+    }
+
+    private static String repositoryName(Object repository) {
+        return Arrays.stream(AopProxyUtils.proxiedUserInterfaces(repository))
+                .filter(type -> type.getPackageName().startsWith("com.javarush.jira"))
+                .findFirst().map(Class::getSimpleName).orElseThrow();
+    }
+
+    //  plans of the statements of the call, explained in its transaction before the rollback
+    private List<String> explain(Object repository, Method method) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> {
+            status.setRollbackOnly();
+            List<RecordedStatement> statements = recorder.record(() -> method.invoke(repository, sampleArgs(method)));
+            return jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+                List<String> plans = new ArrayList<>();
+                for (RecordedStatement statement : statements) {
+                    plans.add(statement.explain(connection));
+                }
+                return plans;
+            });
+        });
+    }
+
+    private static List<String> seqScans(JsonNode plan, Set<String> largeTables) {
+        List<String> relations = new ArrayList<>();
+        String relation = plan.path("Relation Name").asText();
+        if ("Seq Scan".equals(plan.path("Node Type").asText()) && largeTables.contains(relation)) {
+            relations.add(relation);
+        }
+        plan.path("Plans").forEach(child -> relations.addAll(seqScans(child, largeTables)));
+        return relations;
+    }
+
+    //  ids of data.sql, they exist and are a small part of plan data, as any single project, sprint or task
+    private static Object[] sampleArgs(Method method) {
+        return Arrays.stream(method.getParameters()).map(QueryPlanTest::sampleArg).toArray();
+    }
+
+    private static Object sampleArg(Parameter parameter) {
+        Class<?> type = parameter.getType();
+        String name = parameter.getName();
+        if (type == long.class || type == Long.class) {
+            return switch (name) {
+                case "projectId" -> 2L;
+                case "sprintId" -> 5L;
+                case "userId" -> 1L;
+                case "estimate" -> 1L;
+                default -> 3L;
+            };
+        } else if (type == int.class || type == Integer.class) {
+            return "depth".equals(name) ? 3 : 21;
+        } else if (type == String.class) {
+            return switch (name) {
+                case "email" -> "user@gmail.com";
+                case "statuses" -> "{}";
+                case "userTypeCode", "code" -> "task_developer";
+                default -> "todo";
+            };
+        } else if (type == boolean.class) {
+            return true;
+        } else if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        } else if (type == Pageable.class) {
+            return PageRequest.of(0, 20);
+        } else if (Collection.class.isAssignableFrom(type)) {
+            return List.of(1L, 2L, 3L);
+        } else if (type == ObjectType.class) {
+            return ObjectType.TASK;
+        } else if (type == RefType.class) {
+            return RefType.TASK_STATUS;
+        }
+        throw new IllegalArgumentException("No sample for " + parameter + " of " + parameter.getDeclaringExecutable());
+    }
+
+    interface Call {
+        void run() throws Exception;
+    }
+
+    record Setter(Method method, Object[] args) {
+    }
+
+    record RecordedStatement(String sql, List<Setter> setters) {
+        String explain(Connection connection) throws SQLException {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + sql)) {
+                for (Setter setter : setters) {
+                    try {
+                        setter.method().invoke(explain, setter.args());
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                try (ResultSet rs = explain.executeQuery()) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            }
+        }
+    }
+
+    //  JDBC level recording: SQL and parameter setter calls of the executed prepared statements
+    static class StatementRecorder {
+        private List<RecordedStatement> recorded;
+
+        List<RecordedStatement> record(Call call) {
+            List<RecordedStatement> statements = new ArrayList<>();
+            recorded = statements;
+            try {
+                call.run();
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException(e.getTargetException());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            } finally {
+                recorded = null;
+            }
+            return statements;
+        }
+
+        Connection wrap(Connection connection) {
+            return proxy(Connection.class, connection, (method, args) -> {
+                Object result = method.invoke(connection, args);
+                if (recorded != null && result instanceof PreparedStatement statement && args != null && args[0] instanceof String sql) {
+                    return wrap(statement, sql);
+                }
+                return result;
+            });
+        }
+
+        private PreparedStatement wrap(PreparedStatement statement, String sql) {
+            List<Setter> setters = new ArrayList<>();
+            return proxy(PreparedStatement.class, statement, (method, args) -> {
+                if (method.getName().startsWith("set") && method.getParameterCount() >= 2 && method.getParameterTypes()[0] == int.class) {
+                    setters.add(new Setter(method, args));
+                } else if (method.getName().startsWith("execute") && recorded != null) {
+                    recorded.add(new RecordedStatement(sql, List.copyOf(setters)));
+                }
+                return method.invoke(statement, args);
+            });
+        }
+
+        interface Handler {
+            Object handle(Method method, Object[] args) throws Throwable;
+        }
+
+        private static <T> T proxy(Class<T> type, T target, Handler handler) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                try {
+                    return handler.handle(method, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }));
+        }
+    }
+
+    @TestConfiguration
+    static class RecordingConfig {
+        @Bean
+        static StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+
+        @Bean
+        static BeanPostProcessor recordingDataSource(StatementRecorder recorder) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return recorder.wrap(super.getConnection());
+                        }
+                    } : bean;
+                }
+            };
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.javarush.jira.AbstractControllerTest;
 import com.javarush.jira.bugtracking.sprint.to.SprintTo;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.web.servlet.ResultActions;
@@ -14,6 +15,7 @@ import static com.javarush.jira.bugtracking.sprint.SprintTestData.*;
 import static com.javarush.jira.common.BaseHandler.REST_URL;
 import static com.javarush.jira.common.util.JsonUtil.writeValue;
 import static com.javarush.jira.login.internal.web.UserTestData.*;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -57,6 +59,53 @@ class SprintControllerTest extends AbstractControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithUserDetails(value = ADMIN_MAIL)
+    void getCapacity() throws Exception {
+        String eTag = perform(MockMvcRequestBuilders.get(SPRINTS_REST_URL + SPRINT1_ID + "/capacity"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].userId", contains((int) USER_ID, (int) ADMIN_ID)))
+                .andExpect(jsonPath("$[0].tasks", is(2)))
+                .andExpect(jsonPath("$[0].openTasks", is(2)))
+                .andExpect(jsonPath("$[0].remainingEstimate", is(8)))
+                .andExpect(jsonPath("$[1].displayName", is("adminDisplayName")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        perform(MockMvcRequestBuilders.get(SPRINTS_REST_URL + SPRINT1_ID + "/capacity")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        perform(MockMvcRequestBuilders.patch(REST_URL + "/tasks/2/unassign")
+                .param("userType", "task_developer"))
+                .andExpect(status().isNoContent());
+        perform(MockMvcRequestBuilders.get(SPRINTS_REST_URL + SPRINT1_ID + "/capacity")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].userId", contains((int) USER_ID, (int) ADMIN_ID)))
+                .andExpect(jsonPath("$[1].tasks", is(1)))
+                .andExpect(jsonPath("$[1].remainingEstimate", is(4)));
+    }
+
+    @Test
+    @WithUserDetails(value = ADMIN_MAIL)
+    void getCapacityAfterUserDeleted() throws Exception {
+        String eTag = perform(MockMvcRequestBuilders.get(SPRINTS_REST_URL + SPRINT1_ID + "/capacity"))
+                .andExpect(jsonPath("$[*].userId", contains((int) USER_ID, (int) ADMIN_ID)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        perform(MockMvcRequestBuilders.delete("/api/admin/users/" + USER_ID))
+                .andExpect(status().isNoContent());
+        perform(MockMvcRequestBuilders.get(SPRINTS_REST_URL + SPRINT1_ID + "/capacity")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].userId", contains((int) ADMIN_ID)));
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void getCapacityNotFound() throws Exception {
+        perform(MockMvcRequestBuilders.get(SPRINTS_REST_URL + NOT_FOUND + "/capacity"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @WithUserDetails(value = USER_MAIL)
     void getAllByProject() throws Exception {
@@ -317,6 +366,21 @@ class SprintControllerTest extends AbstractControllerTest {
         assertEquals(ACTIVE, repository.getExisted(SPRINT1_ID).getStatusCode());
     }
 
+    @Test
+    @WithUserDetails(value = ADMIN_MAIL)
+    void projectSprintsNotModified() throws Exception {
+        String projectSprintsUrl = REST_URL + "/tree/projects/" + PROJECT1_ID + "/sprints";
+        String eTag = perform(MockMvcRequestBuilders.get(projectSprintsUrl))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        perform(MockMvcRequestBuilders.get(projectSprintsUrl).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        changeStatusCode();
+        perform(MockMvcRequestBuilders.get(projectSprintsUrl).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
     @Test
     @WithUserDetails(value = ADMIN_MAIL)
     void changeStatusCodeNotFound() throws Exception {
@@ -1,17 +1,33 @@
 package com.javarush.jira.bugtracking.task;
 
+import com.jayway.jsonpath.JsonPath;
 import com.javarush.jira.AbstractControllerTest;
+import com.javarush.jira.bugtracking.AssignmentCache;
 import com.javarush.jira.bugtracking.UserBelongRepository;
 import com.javarush.jira.bugtracking.task.to.ActivityTo;
+import com.javarush.jira.bugtracking.task.to.TaskBulkTo;
+import com.javarush.jira.bugtracking.task.to.TaskBulkTo.Operation;
+import com.javarush.jira.bugtracking.task.to.TaskBulkTo.OperationType;
 import com.javarush.jira.bugtracking.task.to.TaskToExt;
 import com.javarush.jira.bugtracking.task.to.TaskToFull;
+import com.javarush.jira.common.CountEstimator;
+import com.javarush.jira.common.to.PageTo;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import static com.javarush.jira.bugtracking.ObjectType.TASK;
 import static com.javarush.jira.bugtracking.task.TaskController.REST_URL;
 import static com.javarush.jira.bugtracking.task.TaskService.CANNOT_ASSIGN;
@@ -20,8 +36,13 @@ import static com.javarush.jira.bugtracking.task.TaskTestData.NOT_FOUND;
 import static com.javarush.jira.bugtracking.task.TaskTestData.*;
 import static com.javarush.jira.common.util.JsonUtil.writeValue;
 import static com.javarush.jira.login.internal.web.UserTestData.*;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -30,14 +51,24 @@ class TaskControllerTest extends AbstractControllerTest {
     private static final String TASKS_BY_PROJECT_REST_URL = REST_URL + "/by-project";
     private static final String TASKS_BY_SPRINT_REST_URL = REST_URL + "/by-sprint";
     private static final String ACTIVITIES_REST_URL = REST_URL + "/activities";
+    private static final String BULK_REST_URL = REST_URL + "/bulk";
+    private static final String EXPORT_REST_URL = REST_URL + "/export";
+    private static final String IMPORT_REST_URL = REST_URL + "/import";
+    private static final String PAGE = "/page";
+    private static final String SUBTREE = "/subtree";
+    private static final String SEARCH_REST_URL = REST_URL + "/search";
+    private static final String ASSIGNED_REST_URL = REST_URL + "/assigned";
     private static final String ACTIVITIES_REST_URL_SLASH = REST_URL + "/activities/";
     private static final String CHANGE_STATUS = "/change-status";
+    private static final String ACTIVITIES = "/activities";
 
     private static final String PROJECT_ID = "projectId";
     private static final String SPRINT_ID = "sprintId";
     private static final String STATUS_CODE = "statusCode";
     private static final String USER_TYPE = "userType";
     private static final String ENABLED = "enabled";
+    private static final String SIZE = "size";
+    private static final String CURSOR = "cursor";
 
     @Autowired
     private TaskRepository taskRepository;
@@ -45,6 +76,12 @@ class TaskControllerTest extends AbstractControllerTest {
     private ActivityRepository activityRepository;
     @Autowired
     private UserBelongRepository userBelongRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CountEstimator countEstimator;
+    @Autowired
+    private AssignmentCache assignmentCache;
 
     @Test
     @WithUserDetails(value = USER_MAIL)
@@ -60,6 +97,221 @@ class TaskControllerTest extends AbstractControllerTest {
                 .andExpect(TASK_TO_FULL_MATCHER.contentJson(taskToFull));
     }
 
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void getActivitiesByPages() throws Exception {
+        String firstPage = perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + ACTIVITIES)
+                .param(SIZE, "2"))
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.content[*].id", contains(3, 2)))
+                .andReturn().getResponse().getContentAsString();
+        String next = JsonPath.read(firstPage, "$.next");
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + ACTIVITIES)
+                .param(SIZE, "2")
+                .param(CURSOR, next))
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.content[*].id", contains(1)))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    //  comments are not a part of the history, they are paged by /comments
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void getWithoutComments() throws Exception {
+        jdbcTemplate.update("INSERT INTO activity (author_id, task_id, updated, comment) VALUES (?, ?, now(), 'Comment')", USER_ID, TASK1_ID);
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activityTos[*].id", contains(3, 2, 1)))
+                .andExpect(jsonPath("$.activitiesNext").doesNotExist());
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + "/comments"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].comment", is("Comment")));
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void getCommentsInvalidCursor() throws Exception {
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + "/comments")
+                .param(CURSOR, "invalid"))
+                .andDo(print())
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void exportCsv() throws Exception {
+        MvcResult result = perform(MockMvcRequestBuilders.get(EXPORT_REST_URL)
+                .param(PROJECT_ID, String.valueOf(PROJECT1_ID + 1))
+                .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(TaskController.EXPORT_TIMEOUT.toMillis(), result.getRequest().getAsyncContext().getTimeout());
+        String csv = perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(TaskController.TEXT_CSV_VALUE))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = csv.split("\n");
+        assertEquals("id,code,title,typeCode,statusCode,parentId,projectId,sprintId,startpoint", lines[0]);
+        assertEquals(6, lines.length);
+        assertTrue(lines[1].startsWith("3,task-3,task-3,task,ready_for_test,,2,5,"));
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void exportNdjsonExtended() throws Exception {
+        MvcResult result = perform(MockMvcRequestBuilders.get(EXPORT_REST_URL)
+                .param(PROJECT_ID, String.valueOf(PROJECT1_ID))
+                .param("extended", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String ndjson = perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Trees desc", JsonPath.read(lines[1], "$.description"));
+        assertEquals("normal", JsonPath.read(lines[0], "$.priorityCode"));
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void exportTagWithComma() throws Exception {
+        jdbcTemplate.update("INSERT INTO task_tag (task_id, tag) VALUES (?, 'a,b'), (?, 'c')", TASK1_ID, TASK1_ID);
+        MvcResult result = perform(MockMvcRequestBuilders.get(EXPORT_REST_URL)
+                .param(PROJECT_ID, String.valueOf(PROJECT1_ID))
+                .param("extended", "true"))
+                .andReturn();
+        String ndjson = perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(List.of("a,b", "c"), JsonPath.read(ndjson.split("\n")[0], "$.tags"));
+
+        result = perform(MockMvcRequestBuilders.get(EXPORT_REST_URL)
+                .param(PROJECT_ID, String.valueOf(PROJECT1_ID))
+                .param("format", "CSV")
+                .param("extended", "true"))
+                .andReturn();
+        String csv = perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(csv.split("\n")[1].endsWith(",\"\"\"a,b\"\",c\""));
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void importCsv() throws Exception {
+        String csv = """
+                ref,parentRef,title,typeCode,statusCode,sprintId,priorityCode,estimate,tags,comment
+                sub,epic,Import subtask,task,,2,low,3,"backend, api",
+                epic,,Import epic,epic,in_progress,2,high,,,"first, ""quoted""
+                comment"
+                bad,,Bad row,unknown,,,,,,
+                """;
+        perform(MockMvcRequestBuilders.post(IMPORT_REST_URL)
+                .param(PROJECT_ID, String.valueOf(PROJECT1_ID))
+                .param("format", "CSV")
+                .contentType(TaskController.TEXT_CSV_VALUE)
+                .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.errors[0].row", is(3)))
+                .andExpect(jsonPath("$.errors[0].error", is("Unknown typeCode 'unknown'")));
+
+        List<Task> imported = taskRepository.findAllBySprintId(2).stream()
+                .filter(task -> task.getTitle().startsWith("Import")).toList();
+        assertEquals(2, imported.size());
+        Task epic = imported.stream().filter(task -> task.getParentId() == null).findFirst().orElseThrow();
+        Task sub = imported.stream().filter(task -> task.getParentId() != null).findFirst().orElseThrow();
+        assertEquals(epic.id(), sub.getParentId());
+        assertEquals(List.of(epic.id(), sub.id()), taskRepository.findSubtree(epic.id()).stream().map(Task::id).toList());
+        assertEquals("todo", sub.getStatusCode());
+        assertEquals("low", sub.getPriorityCode());
+        assertEquals(3, sub.getEstimate());
+        assertEquals(3, epic.getSubtaskEstimate());
+        assertEquals(Map.of("todo", 1), epic.getSubtaskStatuses());
+        assertEquals(List.of("api", "backend"),
+                jdbcTemplate.queryForList("SELECT tag FROM task_tag WHERE task_id = ? ORDER BY tag", String.class, sub.id()));
+        List<Activity> epicActivities = activityRepository.findAllByTaskIdOrderByUpdatedDesc(epic.id());
+        assertEquals(2, epicActivities.size());
+        assertTrue(epicActivities.stream().anyMatch(a -> "first, \"quoted\"\ncomment".equals(a.getComment())));
+        assertTrue(userBelongRepository.findActiveAssignment(sub.id(), TASK, USER_ID, "task_author").isPresent());
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void importNdjsonRejectedRows() throws Exception {
+        String ndjson = """
+                {"ref":"a","parentRef":"b","title":"Cycle A","typeCode":"task"}
+                {"ref":"b","parentRef":"a","title":"Cycle B","typeCode":"task"}
+                {"title":"Other project sprint","typeCode":"task","sprintId":5}
+                {"ref":"c","title":"Tagged","typeCode":"bug","tags":["import","import"]}
+                {"ref":"c","title":"Duplicate","typeCode":"bug"}
+                {"title":"<b>Html</b>","typeCode":"task"}
+                """;
+        perform(MockMvcRequestBuilders.post(IMPORT_REST_URL)
+                .param(PROJECT_ID, String.valueOf(PROJECT1_ID))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.errors[*].row", contains(1, 2, 3, 5, 6)));
+        assertEquals(List.of("Tagged"), taskRepository.findAllByProjectId(PROJECT1_ID).stream()
+                .map(Task::getTitle).filter(title -> !title.startsWith("Data") && !title.startsWith("Trees")).toList());
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void importTagWithComma() throws Exception {
+        perform(MockMvcRequestBuilders.post(IMPORT_REST_URL)
+                .param(PROJECT_ID, String.valueOf(PROJECT1_ID))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"title\":\"Import json\",\"typeCode\":\"task\",\"tags\":[\"a,b\",\"c\\\"d\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)));
+        perform(MockMvcRequestBuilders.post(IMPORT_REST_URL)
+                .param(PROJECT_ID, String.valueOf(PROJECT1_ID))
+                .param("format", "CSV")
+                .contentType(TaskController.TEXT_CSV_VALUE)
+                .content("title,typeCode,tags\nImport csv,task,\"\"\"a,b\"\",cd\"\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)));
+        assertEquals(List.of("a,b", "c\"d"), getTags("Import json"));
+        assertEquals(List.of("a,b", "cd"), getTags("Import csv"));
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void importErrorsCapped() throws Exception {
+        String ndjson = "{\"title\":\"Bad\",\"typeCode\":\"unknown\"}\n".repeat(TaskImportService.MAX_REPORTED_ERRORS + 50);
+        perform(MockMvcRequestBuilders.post(IMPORT_REST_URL)
+                .param(PROJECT_ID, String.valueOf(PROJECT1_ID))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(0)))
+                .andExpect(jsonPath("$.rejected", is(TaskImportService.MAX_REPORTED_ERRORS + 50)))
+                .andExpect(jsonPath("$.errors.length()", is(TaskImportService.MAX_REPORTED_ERRORS)))
+                .andExpect(jsonPath("$.errors[0].row", is(1)));
+    }
+
+    private List<String> getTags(String title) {
+        return jdbcTemplate.queryForList("SELECT tt.tag FROM task_tag tt JOIN task t ON t.id = tt.task_id WHERE t.title = ? ORDER BY tt.tag",
+                String.class, title);
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void importProjectNotFound() throws Exception {
+        perform(MockMvcRequestBuilders.post(IMPORT_REST_URL)
+                .param(PROJECT_ID, String.valueOf(NOT_FOUND))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{}"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void getUnAuth() throws Exception {
         perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID))
@@ -95,6 +347,190 @@ class TaskControllerTest extends AbstractControllerTest {
                 .andExpect(TASK_TO_MATCHER.contentJson(taskTo2, taskTo1));
     }
 
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void getPageByProject() throws Exception {
+        String next = JsonPath.read(perform(MockMvcRequestBuilders.get(TASKS_BY_PROJECT_REST_URL + PAGE)
+                .param(PROJECT_ID, String.valueOf(PROJECT1_ID))
+                .param(SIZE, "1")
+                .param("total", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains((int) TASK2_ID)))
+                .andExpect(jsonPath("$.total.count", is(2)))
+                .andExpect(jsonPath("$.total.exact", is(true)))
+                .andReturn().getResponse().getContentAsString(), "$.next");
+        perform(MockMvcRequestBuilders.get(TASKS_BY_PROJECT_REST_URL + PAGE)
+                .param(PROJECT_ID, String.valueOf(PROJECT1_ID))
+                .param(SIZE, "1")
+                .param(CURSOR, next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains((int) TASK1_ID)))
+                .andExpect(jsonPath("$.next").doesNotExist())
+                .andExpect(jsonPath("$.total").doesNotExist());
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void getPageBySprintKeepsSubtree() throws Exception {
+        // the newest task of the sprint, but it belongs to the page of its parent
+        jdbcTemplate.update("INSERT INTO task (title, type_code, status_code, project_id, sprint_id, parent_id, startpoint) " +
+                "VALUES ('Data subtask', 'task', 'todo', ?, ?, ?, '2023-05-16 09:00:00')", PROJECT1_ID, SPRINT1_ID, TASK1_ID);
+        int subtaskId = jdbcTemplate.queryForObject("SELECT id FROM task WHERE title = 'Data subtask'", Integer.class);
+        jdbcTemplate.update("UPDATE task SET path = ARRAY[?, id] WHERE id = ?", TASK1_ID, subtaskId);
+
+        String next = JsonPath.read(perform(MockMvcRequestBuilders.get(TASKS_BY_SPRINT_REST_URL + PAGE)
+                .param(SPRINT_ID, String.valueOf(SPRINT1_ID))
+                .param(SIZE, "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains((int) TASK2_ID)))
+                .andReturn().getResponse().getContentAsString(), "$.next");
+        perform(MockMvcRequestBuilders.get(TASKS_BY_SPRINT_REST_URL + PAGE)
+                .param(SPRINT_ID, String.valueOf(SPRINT1_ID))
+                .param(SIZE, "1")
+                .param(CURSOR, next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains((int) TASK1_ID, subtaskId)))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void getPageBySprintSubtaskUnderOtherSprint() throws Exception {
+        // the subtask of the sprint has a parent in another sprint: it is a sprint root, not a part of the TASK1 subtree
+        jdbcTemplate.update("INSERT INTO task (title, type_code, status_code, project_id, sprint_id, parent_id, path) " +
+                "VALUES ('Other sprint', 'task', 'todo', ?, ?, ?, ARRAY[?])", PROJECT1_ID, SPRINT1_ID + 1, TASK1_ID, TASK1_ID);
+        int middleId = jdbcTemplate.queryForObject("SELECT id FROM task WHERE title = 'Other sprint'", Integer.class);
+        jdbcTemplate.update("UPDATE task SET path = path || id WHERE id = ?", middleId);
+        jdbcTemplate.update("INSERT INTO task (title, type_code, status_code, project_id, sprint_id, parent_id, path, startpoint) " +
+                "VALUES ('Data subtask', 'task', 'todo', ?, ?, ?, ARRAY[?, ?], '2023-05-16 09:00:00')",
+                PROJECT1_ID, SPRINT1_ID, middleId, TASK1_ID, middleId);
+        int subtaskId = jdbcTemplate.queryForObject("SELECT id FROM task WHERE title = 'Data subtask'", Integer.class);
+        jdbcTemplate.update("UPDATE task SET path = path || id WHERE id = ?", subtaskId);
+
+        List<Integer> ids = new ArrayList<>();
+        String next = null;
+        do {
+            MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(TASKS_BY_SPRINT_REST_URL + PAGE)
+                    .param(SPRINT_ID, String.valueOf(SPRINT1_ID))
+                    .param(SIZE, "1");
+            if (next != null) {
+                request.param(CURSOR, next);
+            }
+            String page = perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            ids.addAll(JsonPath.read(page, "$.content[*].id"));
+            next = JsonPath.read(page, "$.next");
+        } while (next != null && ids.size() < 10);
+        assertEquals(List.of(subtaskId, (int) TASK2_ID, (int) TASK1_ID), ids);
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void searchByProjectAndStatuses() throws Exception {
+        perform(MockMvcRequestBuilders.get(SEARCH_REST_URL)
+                .param(PROJECT_ID, String.valueOf(PROJECT1_ID + 1))
+                .param(STATUS_CODE, "todo", "done"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(6, 5)))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void searchByAssigneeSortedByUpdated() throws Exception {
+        String next = JsonPath.read(perform(MockMvcRequestBuilders.get(SEARCH_REST_URL)
+                .param("assigneeId", String.valueOf(ADMIN_ID))
+                .param("sort", "UPDATED")
+                .param(SIZE, "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains((int) TASK1_ID)))
+                .andReturn().getResponse().getContentAsString(), "$.next");
+        perform(MockMvcRequestBuilders.get(SEARCH_REST_URL)
+                .param("assigneeId", String.valueOf(ADMIN_ID))
+                .param("sort", "UPDATED")
+                .param(SIZE, "1")
+                .param(CURSOR, next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains((int) TASK2_ID)))
+                .andExpect(jsonPath("$.next").doesNotExist());
+        perform(MockMvcRequestBuilders.get(SEARCH_REST_URL)
+                .param("assigneeId", String.valueOf(ADMIN_ID))
+                .param("assigneeType", "task_reviewer"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains((int) TASK1_ID)));
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void getAssigned() throws Exception {
+        String next = JsonPath.read(perform(MockMvcRequestBuilders.get(ASSIGNED_REST_URL)
+                .param(SIZE, "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains((int) TASK1_ID)))
+                .andExpect(jsonPath("$.content[0].code", is("epic-1")))
+                .andExpect(jsonPath("$.content[0].project.code", is("PR1")))
+                .andExpect(jsonPath("$.content[0].sprint.id", is(1)))
+                .andExpect(jsonPath("$.content[0].roles", contains("task_developer", "task_tester")))
+                .andExpect(jsonPath("$.content[0].assigned", is("2023-06-14T15:20:00")))
+                .andReturn().getResponse().getContentAsString(), "$.next");
+        perform(MockMvcRequestBuilders.get(ASSIGNED_REST_URL)
+                .param(SIZE, "1")
+                .param(CURSOR, next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains((int) TASK2_ID)))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    @WithUserDetails(value = ADMIN_MAIL)
+    void getAssignedFiltered() throws Exception {
+        perform(MockMvcRequestBuilders.get(ASSIGNED_REST_URL)
+                .param("userType", "task_reviewer"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains((int) TASK1_ID)))
+                .andExpect(jsonPath("$.content[0].roles", contains("task_reviewer")));
+        perform(MockMvcRequestBuilders.get(ASSIGNED_REST_URL)
+                .param(PROJECT_ID, String.valueOf(PROJECT1_ID))
+                .param(STATUS_CODE, "in_progress", "done"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains((int) TASK1_ID, (int) TASK2_ID)));
+        perform(MockMvcRequestBuilders.get(ASSIGNED_REST_URL)
+                .param("sprintId", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isEmpty());
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void searchByTagAndCreated() throws Exception {
+        jdbcTemplate.update("INSERT INTO task_tag (task_id, tag) VALUES (3, 'urgent'), (4, 'urgent')");
+        perform(MockMvcRequestBuilders.get(SEARCH_REST_URL)
+                .param(PROJECT_ID, String.valueOf(PROJECT1_ID + 1))
+                .param("tag", "urgent")
+                .param("createdFrom", "2023-06-14T00:00:00")
+                .param("direction", "ASC"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(3, 4)));
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void searchWithoutScope() throws Exception {
+        perform(MockMvcRequestBuilders.get(SEARCH_REST_URL)
+                .param(STATUS_CODE, "todo"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void countEstimate() {
+        String query = "SELECT 1 FROM task WHERE project_id = ?";
+        assertEquals(new PageTo.Total(5, true), countEstimator.count(10, query, PROJECT1_ID + 1));
+        PageTo.Total estimated = countEstimator.count(1, query, PROJECT1_ID + 1);
+        assertFalse(estimated.exact());
+        assertTrue(estimated.count() > 1);
+    }
+
     @Test
     void getAllByProjectUnauthorized() throws Exception {
         perform(MockMvcRequestBuilders.get(TASKS_BY_PROJECT_REST_URL)
@@ -113,6 +549,9 @@ class TaskControllerTest extends AbstractControllerTest {
                 .andExpect(status().isNoContent());
 
         Task updated = new Task(updatedTo.getId(), updatedTo.getTitle(), updatedTo.getTypeCode(), updatedTo.getStatusCode(), updatedTo.getParentId(), updatedTo.getProjectId(), updatedTo.getSprintId());
+        updated.setDescription(updatedTo.getDescription());
+        updated.setPriorityCode(updatedTo.getPriorityCode());
+        updated.setEstimate(updatedTo.getEstimate());
         TASK_MATCHER.assertMatch(taskRepository.getExisted(TASK2_ID), updated);
         get(TASK2_ID, taskToFull2);
     }
@@ -311,6 +750,51 @@ class TaskControllerTest extends AbstractControllerTest {
         assertEquals(READY_FOR_REVIEW, taskRepository.getExisted(TASK1_ID).getStatusCode());
     }
 
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void getAllBySprintNotModified() throws Exception {
+        String eTag = perform(MockMvcRequestBuilders.get(TASKS_BY_SPRINT_REST_URL)
+                .param(SPRINT_ID, String.valueOf(SPRINT1_ID)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        perform(MockMvcRequestBuilders.get(TASKS_BY_SPRINT_REST_URL)
+                .param(SPRINT_ID, String.valueOf(SPRINT1_ID))
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        perform(MockMvcRequestBuilders.patch(TASKS_REST_URL_SLASH + TASK1_ID + CHANGE_STATUS)
+                .param(STATUS_CODE, READY_FOR_REVIEW))
+                .andExpect(status().isNoContent());
+        perform(MockMvcRequestBuilders.get(TASKS_BY_SPRINT_REST_URL)
+                .param(SPRINT_ID, String.valueOf(SPRINT1_ID))
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+        perform(MockMvcRequestBuilders.get("/api/tree/sprints/" + SPRINT1_ID + "/tasks")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithUserDetails(value = ADMIN_MAIL)
+    void rollupChangeOfOtherSprintSubtask() throws Exception {
+        long childId = createTask(new TaskToExt(null, "task-1", "Child", "Child desc", "task", "todo", "low", null, 2, TASK1_ID, PROJECT1_ID, SPRINT1_ID + 1));
+        String treeUrl = "/api/tree/sprints/" + SPRINT1_ID + "/tasks";
+        String eTag = perform(MockMvcRequestBuilders.get(treeUrl))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(MockMvcRequestBuilders.patch(TASKS_REST_URL_SLASH + childId + CHANGE_STATUS)
+                .param(STATUS_CODE, "in_progress"))
+                .andExpect(status().isNoContent());
+        perform(MockMvcRequestBuilders.get(treeUrl)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + TASK1_ID + ")].rollup.statuses.in_progress", contains(1)));
+    }
+
     @Test
     @WithUserDetails(value = ADMIN_MAIL)
     void changeTaskStatusWhenStatusNotChanged() throws Exception {
@@ -361,10 +845,172 @@ class TaskControllerTest extends AbstractControllerTest {
         Task created = TASK_MATCHER.readFromJson(action);
         long newId = created.id();
         Task newTask = new Task(newId, newTo.getTitle(), newTo.getTypeCode(), newTo.getStatusCode(), newTo.getParentId(), newTo.getProjectId(), newTo.getSprintId());
+        newTask.setDescription(newTo.getDescription());
+        newTask.setPriorityCode(newTo.getPriorityCode());
+        newTask.setEstimate(newTo.getEstimate());
         TASK_MATCHER.assertMatch(created, newTask);
         TASK_MATCHER.assertMatch(taskRepository.getExisted(newId), newTask);
     }
 
+    @Test
+    @WithUserDetails(value = ADMIN_MAIL)
+    void subtreeMoveAndAncestors() throws Exception {
+        long childId = createTask(new TaskToExt(null, "task-1", "Child", "Child desc", "task", "todo", "low", null, null, TASK1_ID, PROJECT1_ID, SPRINT1_ID));
+        long grandChildId = createTask(new TaskToExt(null, "task-1", "Grandchild", "Grandchild desc", "task", "todo", "low", null, null, childId, PROJECT1_ID, SPRINT1_ID));
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + SUBTREE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains((int) TASK1_ID, (int) childId, (int) grandChildId)));
+
+        perform(MockMvcRequestBuilders.put(TASKS_REST_URL_SLASH + childId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(new TaskToExt(childId, "task-1", "Child", "Child desc", "task", "todo", "low", null, null, TASK2_ID, PROJECT1_ID, SPRINT1_ID))))
+                .andExpect(status().isNoContent());
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + SUBTREE))
+                .andExpect(jsonPath("$[*].id", contains((int) TASK1_ID)));
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + grandChildId + "/ancestors"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains((int) TASK2_ID, (int) childId)));
+
+        perform(MockMvcRequestBuilders.put(TASKS_REST_URL_SLASH + TASK2_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(new TaskToExt(TASK2_ID, "epic-2", "Trees", "Trees desc", "epic", "in_progress", "normal", null, 4, grandChildId, PROJECT1_ID, SPRINT1_ID))))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithUserDetails(value = ADMIN_MAIL)
+    void subtaskRollups() throws Exception {
+        long childId = createTask(new TaskToExt(null, "task-1", "Child", "Child desc", "task", "todo", "low", null, 5, TASK1_ID, PROJECT1_ID, SPRINT1_ID));
+        long grandChildId = createTask(new TaskToExt(null, "task-1", "Grandchild", "Grandchild desc", "task", "todo", "low", null, 3, childId, PROJECT1_ID, SPRINT1_ID));
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID))
+                .andExpect(jsonPath("$.rollup.estimate").value(8))
+                .andExpect(jsonPath("$.rollup.statuses.todo").value(2));
+
+        perform(MockMvcRequestBuilders.patch(TASKS_REST_URL_SLASH + grandChildId + "/change-status")
+                .param("statusCode", "in_progress"))
+                .andExpect(status().isNoContent());
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID))
+                .andExpect(jsonPath("$.rollup.statuses.todo").value(1))
+                .andExpect(jsonPath("$.rollup.statuses.in_progress").value(1));
+
+        perform(MockMvcRequestBuilders.put(TASKS_REST_URL_SLASH + childId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(new TaskToExt(childId, "task-1", "Child", "Child desc", "task", "todo", "low", null, 2, TASK2_ID, PROJECT1_ID, SPRINT1_ID))))
+                .andExpect(status().isNoContent());
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID))
+                .andExpect(jsonPath("$.rollup.estimate").value(0))
+                .andExpect(jsonPath("$.rollup.statuses").isEmpty());
+        perform(MockMvcRequestBuilders.get("/api/tree/sprints/" + SPRINT1_ID + "/tasks"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + TASK2_ID + ")].rollup.estimate", contains(5)))
+                .andExpect(jsonPath("$[?(@.id == " + TASK2_ID + ")].children[0].rollup.statuses.in_progress", contains(1)));
+    }
+
+    @Test
+    @WithUserDetails(value = ADMIN_MAIL)
+    void moveSubtree() throws Exception {
+        long childId = createTask(new TaskToExt(null, "task-1", "Child", "Child desc", "task", "todo", "low", null, 5, TASK1_ID, PROJECT1_ID, SPRINT1_ID));
+        long grandChildId = createTask(new TaskToExt(null, "task-1", "Grandchild", "Grandchild desc", "task", "todo", "low", null, 3, childId, PROJECT1_ID, SPRINT1_ID));
+        LocalDateTime updatedBefore = taskRepository.getExisted(childId).getUpdated();
+
+        perform(MockMvcRequestBuilders.patch(TASKS_REST_URL_SLASH + childId + "/move")
+                .param("parentId", String.valueOf(TASK2_ID)))
+                .andExpect(status().isNoContent());
+        Task moved = taskRepository.getExisted(childId);
+        assertTrue(moved.getUpdated().isAfter(updatedBefore));
+        assertEquals(TASK2_ID, moved.getParentId());
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + grandChildId + "/ancestors"))
+                .andExpect(jsonPath("$[*].id", contains((int) TASK2_ID, (int) childId)));
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID))
+                .andExpect(jsonPath("$.rollup.statuses").isEmpty());
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK2_ID))
+                .andExpect(jsonPath("$.rollup.estimate").value(8))
+                .andExpect(jsonPath("$.rollup.statuses.todo").value(2));
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + childId + "/comments"))
+                .andExpect(jsonPath("$.content[*].comment", contains("Moved with 1 subtasks: parent 1 -> 2, sprint 1 -> 1")));
+
+        perform(MockMvcRequestBuilders.patch(TASKS_REST_URL_SLASH + childId + "/move")
+                .param("sprintId", String.valueOf(SPRINT1_ID + 1)))
+                .andExpect(status().isNoContent());
+        assertNull(taskRepository.getExisted(childId).getParentId());
+        assertEquals(SPRINT1_ID + 1, taskRepository.getExisted(childId).getSprintId());
+        assertEquals(SPRINT1_ID + 1, taskRepository.getExisted(grandChildId).getSprintId());
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK2_ID))
+                .andExpect(jsonPath("$.rollup.statuses").isEmpty());
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + childId + SUBTREE))
+                .andExpect(jsonPath("$[*].id", contains((int) childId, (int) grandChildId)));
+    }
+
+    @Test
+    @WithUserDetails(value = ADMIN_MAIL)
+    void moveIntoOwnSubtree() throws Exception {
+        long childId = createTask(new TaskToExt(null, "task-1", "Child", "Child desc", "task", "todo", "low", null, null, TASK1_ID, PROJECT1_ID, SPRINT1_ID));
+        perform(MockMvcRequestBuilders.patch(TASKS_REST_URL_SLASH + TASK1_ID + "/move")
+                .param("parentId", String.valueOf(childId)))
+                .andExpect(status().isConflict());
+        perform(MockMvcRequestBuilders.patch(TASKS_REST_URL_SLASH + TASK1_ID + "/move")
+                .param("parentId", String.valueOf(TASK1_ID)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void moveToSprintWhenDev() throws Exception {
+        perform(MockMvcRequestBuilders.patch(TASKS_REST_URL_SLASH + TASK1_ID + "/move")
+                .param("sprintId", String.valueOf(SPRINT1_ID + 1)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithUserDetails(value = ADMIN_MAIL)
+    void getProjectFullTree() throws Exception {
+        long childId = createTask(new TaskToExt(null, "task-1", "Child", "Child desc", "task", "todo", "low", null, null, 3L, 2L, 5L));
+        // a root of sprint 6, though its parent is in sprint 5
+        long otherSprintChildId = createTask(new TaskToExt(null, "task-1", "Other", "Other desc", "task", "todo", "low", null, null, 3L, 2L, 6L));
+        String projectTreeUrl = "/api/tree/projects/2/full";
+        perform(MockMvcRequestBuilders.get(projectTreeUrl))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(2)))
+                .andExpect(jsonPath("$.lazy", is(false)))
+                .andExpect(jsonPath("$.subNodes").doesNotExist())
+                .andExpect(jsonPath("$.children[2].subNodes").doesNotExist())
+                .andExpect(jsonPath("$.children[*].id", contains(7, 6, 5, 0)))
+                .andExpect(jsonPath("$.children[2].children[*].id", containsInAnyOrder(3, 4, 5, 6, 7)))
+                .andExpect(jsonPath("$.children[2].children[?(@.id == 3)].children[*].id", contains((int) childId)));
+
+        perform(MockMvcRequestBuilders.get(projectTreeUrl).param("depth", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.children[2].children[?(@.id == 3)].lazy", contains(true)))
+                .andExpect(jsonPath("$.children[2].children[?(@.id == 4)].lazy", contains(false)))
+                .andExpect(jsonPath("$.children[1].children[*].id", hasItem((int) otherSprintChildId)));
+        perform(MockMvcRequestBuilders.get("/api/tree/tasks/3/subtasks"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains((int) childId)))
+                .andExpect(jsonPath("$[0].lazy", is(false)));
+        perform(MockMvcRequestBuilders.get("/api/tree/tasks/" + NOT_FOUND + "/subtasks"))
+                .andExpect(status().isNotFound());
+        perform(MockMvcRequestBuilders.get(projectTreeUrl).param("depth", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.children[2].lazy", is(true)))
+                .andExpect(jsonPath("$.children[2].subNodes").isEmpty());
+        perform(MockMvcRequestBuilders.get(projectTreeUrl).param("depth", "0"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void getSubtreeNotFound() throws Exception {
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + NOT_FOUND + SUBTREE))
+                .andExpect(status().isNotFound());
+    }
+
+    private long createTask(TaskToExt taskTo) throws Exception {
+        return TASK_MATCHER.readFromJson(perform(MockMvcRequestBuilders.post(REST_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(taskTo)))
+                .andExpect(status().isCreated())).id();
+    }
+
     @Test
     void createTaskUnauthorized() throws Exception {
         perform(MockMvcRequestBuilders.post(REST_URL)
@@ -456,6 +1102,7 @@ class TaskControllerTest extends AbstractControllerTest {
                 .andDo(print())
                 .andExpect(status().isNoContent());
         assertFalse(activityRepository.existsById(ACTIVITY1_ID + 1));
+        assertEquals("low", taskRepository.getExisted(TASK1_ID).getPriorityCode());
     }
 
     @Test
@@ -468,6 +1115,58 @@ class TaskControllerTest extends AbstractControllerTest {
         assertTrue(activityRepository.existsById(ACTIVITY1_ID));
     }
 
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void bulkChangeStatus() throws Exception {
+        int activitiesCount = activityRepository.findAllByTaskIdOrderByUpdatedDesc(TASK1_ID).size();
+        TaskBulkTo bulkTo = new TaskBulkTo(List.of(TASK1_ID, TODO_TASK_ID, NOT_FOUND),
+                List.of(new Operation(OperationType.CHANGE_STATUS, READY_FOR_REVIEW, null, null, null)));
+        perform(MockMvcRequestBuilders.post(BULK_REST_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(bulkTo)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].success", contains(true, false, false)))
+                .andExpect(jsonPath("$[1].error", is("Cannot change task status from todo to ready_for_review")))
+                .andExpect(jsonPath("$[2].error", is("Entity with id=" + NOT_FOUND + " not found")));
+
+        assertEquals(READY_FOR_REVIEW, taskRepository.getExisted(TASK1_ID).getStatusCode());
+        assertEquals(TODO, taskRepository.getExisted(TODO_TASK_ID).getStatusCode());
+        assertEquals(activitiesCount + 1, activityRepository.findAllByTaskIdOrderByUpdatedDesc(TASK1_ID).size());
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void bulkChangeStatusAndSprint() throws Exception {
+        TaskBulkTo bulkTo = new TaskBulkTo(List.of(READY_FOR_REVIEW_TASK_ID, TODO_TASK_ID),
+                List.of(new Operation(OperationType.CHANGE_STATUS, IN_PROGRESS, null, null, null),
+                        new Operation(OperationType.CHANGE_SPRINT, null, SPRINT1_ID + 5, null, null)));
+        perform(MockMvcRequestBuilders.post(BULK_REST_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(bulkTo)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].success", contains(true, true)));
+
+        for (long taskId : List.of(READY_FOR_REVIEW_TASK_ID, TODO_TASK_ID)) {
+            Task task = taskRepository.getExisted(taskId);
+            assertEquals(IN_PROGRESS, task.getStatusCode());
+            assertEquals(SPRINT1_ID + 5, task.getSprintId());
+            assertTrue(userBelongRepository.findActiveAssignment(taskId, TASK, USER_ID, TASK_DEVELOPER).isPresent());
+        }
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void bulkInvalidOperation() throws Exception {
+        TaskBulkTo bulkTo = new TaskBulkTo(List.of(TASK1_ID), List.of(new Operation(OperationType.ASSIGN, null, null, null, null)));
+        perform(MockMvcRequestBuilders.post(BULK_REST_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(bulkTo)))
+                .andDo(print())
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     @Test
     @WithUserDetails(value = USER_MAIL)
     void getTaskAssignmentsBySprint() throws Exception {
@@ -515,6 +1214,49 @@ class TaskControllerTest extends AbstractControllerTest {
         assignToTask();
     }
 
+    @Test
+    @WithUserDetails(value = ADMIN_MAIL)
+    void assignAfterUnassign() throws Exception {
+        AssignmentCache.Stats before = assignmentCache.getStats();
+        assignToTask();
+        perform(MockMvcRequestBuilders.patch(TASKS_REST_URL_SLASH + TASK1_ID + "/unassign")
+                .param(USER_TYPE, TASK_DEVELOPER))
+                .andExpect(status().isNoContent());
+        assertFalse(isAssigned(ADMIN_ID, TASK_DEVELOPER));
+        assertFalse(isAssigned(ADMIN_ID, TASK_DEVELOPER));
+        assignToTask();
+        assertTrue(isAssigned(ADMIN_ID, TASK_DEVELOPER));
+        AssignmentCache.Stats after = assignmentCache.getStats();
+        // loaded after unassign and after the second assign evicted it
+        assertEquals(2, after.misses() - before.misses());
+        assertEquals(1, after.hits() - before.hits());
+        perform(MockMvcRequestBuilders.get("/api/admin/assignments/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.misses", is((int) after.misses())));
+    }
+
+    @Test
+    @WithUserDetails(value = ADMIN_MAIL)
+    void assignmentsOfDeletedUserEvicted() throws Exception {
+        assertTrue(isAssigned(USER_ID, "task_tester"));
+        perform(MockMvcRequestBuilders.delete("/api/admin/users/" + USER_ID))
+                .andExpect(status().isNoContent());
+        assertTrue(assignmentCache.getActive(TASK1_ID, TASK).stream().noneMatch(belong -> belong.getUserId() == USER_ID));
+    }
+
+    //  through the cache, as the readers of assignments
+    private boolean isAssigned(long userId, String userTypeCode) {
+        return assignmentCache.getActive(TASK1_ID, TASK).stream()
+                .anyMatch(belong -> belong.getUserId() == userId && belong.getUserTypeCode().equals(userTypeCode));
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void getAssignmentCacheStatsForbidden() throws Exception {
+        perform(MockMvcRequestBuilders.get("/api/admin/assignments/cache"))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     @WithUserDetails(value = ADMIN_MAIL)
     void assignToTaskWhenStatusForbidAssignment() throws Exception {
@@ -0,0 +1,46 @@
+package com.javarush.jira.bugtracking.task;
+
+import com.javarush.jira.AbstractControllerTest;
+import com.javarush.jira.MatcherFactory;
+import com.javarush.jira.bugtracking.task.to.TaskToFull;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+
+import static com.javarush.jira.bugtracking.task.TaskTestData.*;
+import static com.javarush.jira.login.internal.web.UserTestData.USER_MAIL;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class TaskUIControllerTest extends AbstractControllerTest {
+    private static final String TASK_URL_SLASH = TaskUIController.TASK_URL + "/";
+    private static final MatcherFactory.Matcher<TaskToFull> TASK_PAGE_MATCHER = MatcherFactory.usingIgnoringFieldsComparator(TaskToFull.class,
+            "id", "updated", "activityTos.id", "activityTos.author", "activityTos.updated", "sprint.enabled");
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void get() throws Exception {
+        TaskToFull task = (TaskToFull) perform(MockMvcRequestBuilders.get(TASK_URL_SLASH + TASK1_ID))
+                .andExpect(status().isOk())
+                .andExpect(view().name("task"))
+                .andExpect(model().attribute("comments", List.of()))
+                .andExpect(model().attribute("activities", hasSize(activityTosForTask1.size())))
+                .andExpect(model().attribute("activitiesNext", nullValue()))
+                .andExpect(model().attribute("belongs", hasSize(3)))
+                .andExpect(model().attribute("attachs", List.of()))
+                .andReturn().getModelAndView().getModel().get("task");
+        TASK_PAGE_MATCHER.assertMatch(task, taskToFull1);
+        assertFalse(task.getSprint().isEnabled());
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void getNotFound() throws Exception {
+        perform(MockMvcRequestBuilders.get(TASK_URL_SLASH + NOT_FOUND))
+                .andExpect(status().isNotFound());
+    }
+}
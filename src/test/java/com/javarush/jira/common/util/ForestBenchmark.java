@@ -0,0 +1,110 @@
+package com.javarush.jira.common.util;
+
+import com.javarush.jira.bugtracking.tree.NodeTo;
+import com.javarush.jira.bugtracking.tree.TreeNode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static com.javarush.jira.bugtracking.ObjectType.TASK;
+
+/**
+ * Tree building and flattening: {@link Forest} against the former HashMap/LinkedList implementation
+ * (kept here as the baseline). Run {@link #main} from the IDE, results include allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ForestBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    private List<NodeTo> nodes;
+
+    // every 5th node is a root, others hang under a random earlier node; source order is shuffled like a DB result
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<NodeTo> list = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Long parentId = i == 1 || random.nextInt(5) == 0 ? null : (long) random.nextInt(i - 1) + 1;
+            list.add(new NodeTo(i, "task-" + i, TASK, parentId));
+        }
+        Collections.shuffle(list, random);
+        nodes = list;
+    }
+
+    @Benchmark
+    public List<NodeTo> legacyPreOrder() {
+        List<LegacyNode> roots = legacyMakeTree(nodes);
+        List<NodeTo> sorted = new ArrayList<>();
+        roots.forEach(root -> {
+            sorted.add(root.node());
+            LinkedList<LegacyNode> stack = new LinkedList<>(root.subNodes());
+            while (!stack.isEmpty()) {
+                LegacyNode node = stack.poll();
+                sorted.add(node.node());
+                node.subNodes().forEach(stack::addFirst);
+            }
+        });
+        return sorted;
+    }
+
+    @Benchmark
+    public List<NodeTo> forestPreOrder() {
+        return Forest.of(nodes).preOrder();
+    }
+
+    @Benchmark
+    public List<LegacyNode> legacyTree() {
+        return legacyMakeTree(nodes);
+    }
+
+    @Benchmark
+    public List<TreeNode> forestTree() {
+        return Forest.of(nodes).map(TreeNode::new);
+    }
+
+    record LegacyNode(NodeTo node, List<LegacyNode> subNodes) {
+    }
+
+    private static List<LegacyNode> legacyMakeTree(List<NodeTo> nodes) {
+        List<LegacyNode> roots = new ArrayList<>();
+        Map<Long, LegacyNode> map = new HashMap<>();
+        for (NodeTo node : nodes) {
+            LegacyNode treeNode = new LegacyNode(node, new LinkedList<>());
+            map.put(node.id(), treeNode);
+            if (node.getParentId() == null) {
+                roots.add(treeNode);
+            }
+        }
+        for (NodeTo node : nodes) {
+            if (node.getParentId() != null) {
+                LegacyNode parent = map.get(node.getParentId());
+                LegacyNode current = map.get(node.id());
+                if (parent != null) {
+                    parent.subNodes().add(current);
+                } else {
+                    roots.add(current);
+                }
+            }
+        }
+        return roots;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ForestBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,65 @@
+package com.javarush.jira.common.util;
+
+import com.javarush.jira.bugtracking.tree.NodeTo;
+import com.javarush.jira.bugtracking.tree.TreeNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.javarush.jira.bugtracking.ObjectType.TASK;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForestTest {
+    private static final NodeTo A = new NodeTo(1, "A", TASK, null);
+    private static final NodeTo B = new NodeTo(2, "B", TASK, 1L);
+    private static final NodeTo C = new NodeTo(3, "C", TASK, 1L);
+    private static final NodeTo D = new NodeTo(4, "D", TASK, 2L);
+    private static final NodeTo E = new NodeTo(5, "E", TASK, 4L);
+    private static final NodeTo ORPHAN = new NodeTo(6, "F", TASK, 100L);
+    private static final NodeTo G = new NodeTo(7, "G", TASK, null);
+
+    @Test
+    void preOrder() {
+        List<NodeTo> nodes = List.of(E, ORPHAN, B, C, D, G, A);
+        assertEquals(List.of(G, A, B, D, E, C, ORPHAN), Forest.of(nodes).preOrder());
+    }
+
+    @Test
+    void map() {
+        List<TreeNode> roots = Forest.of(List.of(E, B, C, D, A)).map(TreeNode::new);
+        assertEquals(1, roots.size());
+        TreeNode a = roots.get(0);
+        assertEquals(List.of("B", "C"), a.subNodes().stream().map(TreeNode::code).toList());
+        TreeNode d = a.subNodes().get(0).subNodes().get(0);
+        assertEquals("D", d.code());
+        assertEquals("E", d.subNodes().get(0).code());
+        assertTrue(d.subNodes().get(0).subNodes().isEmpty());
+    }
+
+    @Test
+    void cycleSkipped() {
+        NodeTo x = new NodeTo(10, "X", TASK, 11L);
+        NodeTo y = new NodeTo(11, "Y", TASK, 10L);
+        assertEquals(List.of(A), Forest.of(List.of(x, A, y)).preOrder());
+    }
+
+    @Test
+    void empty() {
+        assertTrue(Forest.of(List.<NodeTo>of()).preOrder().isEmpty());
+    }
+
+    @Test
+    void largeIndex() {
+        int size = 100_000;
+        List<NodeTo> nodes = new ArrayList<>(size);
+        for (int i = size; i > 0; i--) {
+            nodes.add(new NodeTo(i * 1_000_003L, "N" + i, TASK, i == 1 ? null : (i - 1) * 1_000_003L));
+        }
+        List<NodeTo> ordered = Forest.of(nodes).preOrder();
+        assertEquals(size, ordered.size());
+        assertEquals(1_000_003L, ordered.get(0).id());
+        assertEquals(size * 1_000_003L, ordered.get(size - 1).id());
+    }
+}
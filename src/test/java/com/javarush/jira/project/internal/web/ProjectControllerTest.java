@@ -2,21 +2,29 @@ package com.javarush.jira.project.internal.web;
 
 import com.javarush.jira.AbstractControllerTest;
 import com.javarush.jira.bugtracking.project.Project;
+import com.javarush.jira.bugtracking.project.ProjectCatalog;
 import com.javarush.jira.bugtracking.project.ProjectRepository;
+import com.javarush.jira.bugtracking.project.to.ProjectTo;
 import com.javarush.jira.common.BaseHandler;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import static com.javarush.jira.common.util.JsonUtil.writeValue;
+import static com.javarush.jira.login.internal.web.UserTestData.ADMIN_MAIL;
 import static com.javarush.jira.login.internal.web.UserTestData.MANAGER_MAIL;
 import static com.javarush.jira.login.internal.web.UserTestData.USER_MAIL;
 import static com.javarush.jira.project.internal.web.ProjectTestData.*;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class ProjectControllerTest extends AbstractControllerTest {
@@ -25,6 +33,10 @@ public class ProjectControllerTest extends AbstractControllerTest {
 
     @Autowired
     private ProjectRepository projectRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ProjectCatalog projectCatalog;
 
     @Test
     @WithUserDetails(value = USER_MAIL)
@@ -54,6 +66,71 @@ public class ProjectControllerTest extends AbstractControllerTest {
         PROJECT_TO_MATCHER.assertMatch(projectTo2, ProjectTestData.getUpdated());
     }
 
+    @Test
+    @WithUserDetails(value = MANAGER_MAIL)
+    void getAfterUpdate() throws Exception {
+        perform(MockMvcRequestBuilders.get(REST_URL_PROJECT + "/" + PROJECT_ID))
+                .andExpect(status().isOk());
+        ProjectTo updated = ProjectTestData.getUpdated();
+        perform(MockMvcRequestBuilders.put(REST_URL_MNGR_PROJECT + "/" + PROJECT_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(updated)))
+                .andExpect(status().isNoContent());
+        perform(MockMvcRequestBuilders.get(REST_URL_PROJECT + "/" + PROJECT_ID))
+                .andExpect(status().isOk())
+                .andExpect(PROJECT_TO_MATCHER.contentJson(updated));
+        perform(MockMvcRequestBuilders.get(REST_URL_PROJECT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + PROJECT_ID + ")].title").value("PROJECT-2 UPD"));
+    }
+
+    //  committed by another node: no event on this node, the changed version is seen by the next revalidation
+    @Test
+    @WithUserDetails(value = MANAGER_MAIL)
+    void getAfterChangeOfOtherNode() throws Exception {
+        String eTag = perform(MockMvcRequestBuilders.get("/api/tree/projects"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        jdbcTemplate.update("UPDATE project SET code = 'REMOTE', version = version + 1 WHERE id = ?", PROJECT_ID);
+        perform(MockMvcRequestBuilders.get(REST_URL_PROJECT + "/" + PROJECT_ID))
+                .andExpect(jsonPath("$.code").value(not("REMOTE")));
+        projectCatalog.revalidate();
+
+        perform(MockMvcRequestBuilders.get(REST_URL_PROJECT + "/" + PROJECT_ID))
+                .andExpect(jsonPath("$.code").value("REMOTE"));
+        perform(MockMvcRequestBuilders.get("/api/tree/projects")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$..[?(@.id == " + PROJECT_ID + ")].title").value("REMOTE"));
+    }
+
+    @Test
+    @WithUserDetails(value = ADMIN_MAIL)
+    void getCatalogStats() throws Exception {
+        perform(MockMvcRequestBuilders.get(REST_URL_PROJECT));
+        perform(MockMvcRequestBuilders.get(REST_URL_PROJECT + "/" + PARENT_PROJECT_ID));
+        perform(MockMvcRequestBuilders.get(BaseHandler.REST_URL + "/admin/projects/catalog"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.projects").value(2))
+                .andExpect(jsonPath("$.hits").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.misses").value(greaterThanOrEqualTo(1)));
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void getCatalogStatsForbidden() throws Exception {
+        perform(MockMvcRequestBuilders.get(BaseHandler.REST_URL + "/admin/projects/catalog"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithUserDetails(value = MANAGER_MAIL)
+    void getNotFound() throws Exception {
+        perform(MockMvcRequestBuilders.get(REST_URL_PROJECT + "/" + 100))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @WithUserDetails(value = MANAGER_MAIL)
     void createNoBody() throws Exception {
@@ -0,0 +1,88 @@
+package com.javarush.jira.ref.internal.web;
+
+import com.javarush.jira.AbstractControllerTest;
+import com.javarush.jira.ref.RefType;
+import com.javarush.jira.ref.ReferenceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static com.javarush.jira.login.internal.web.UserTestData.ADMIN_MAIL;
+import static com.javarush.jira.login.internal.web.UserTestData.USER_MAIL;
+import static com.javarush.jira.ref.internal.web.ReferenceTestData.TASK_CODE;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ReferenceBundleControllerTest extends AbstractControllerTest {
+    private static final String REST_URL = ReferenceBundleController.REST_URL;
+
+    @Autowired
+    private ReferenceService referenceService;
+
+    @BeforeEach
+    void reInit() {
+        referenceService.updateRefs(RefType.TASK);
+    }
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void getAll() throws Exception {
+        String eTag = perform(MockMvcRequestBuilders.get(REST_URL))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=300")))
+                .andExpect(jsonPath("$.TASK_STATUS.todo.title", is("ToDo")))
+                .andExpect(jsonPath("$.TASK_STATUS.todo.aux", is("in_progress,canceled|")))
+                .andExpect(jsonPath("$.TASK." + TASK_CODE + ".aux").doesNotExist())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(MockMvcRequestBuilders.get(REST_URL)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @WithUserDetails(value = ADMIN_MAIL)
+    void disabledExcluded() throws Exception {
+        String eTag = perform(MockMvcRequestBuilders.get(REST_URL))
+                .andExpect(jsonPath("$.TASK." + TASK_CODE).exists())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(MockMvcRequestBuilders.patch(ReferenceController.REST_URL + "/" + RefType.TASK + "/" + TASK_CODE)
+                .param("enabled", "false"))
+                .andExpect(status().isNoContent());
+
+        String changedETag = perform(MockMvcRequestBuilders.get(REST_URL)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.TASK." + TASK_CODE).doesNotExist())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, changedETag);
+    }
+
+    //  another node or a reload has another version of the same references
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void eTagOfContent() throws Exception {
+        long version = ReferenceService.getVersion();
+        String eTag = perform(MockMvcRequestBuilders.get(REST_URL))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        referenceService.updateRefs(RefType.TASK_STATUS);
+        assertNotEquals(version, ReferenceService.getVersion());
+        perform(MockMvcRequestBuilders.get(REST_URL)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getUnAuth() throws Exception {
+        perform(MockMvcRequestBuilders.get(REST_URL))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -1,26 +1,37 @@
 package com.javarush.jira.ref.internal.web;
 
 import com.javarush.jira.AbstractControllerTest;
+import com.javarush.jira.ref.NotificationMasks;
+import com.javarush.jira.ref.RefSnapshot;
 import com.javarush.jira.ref.RefTo;
 import com.javarush.jira.ref.RefType;
 import com.javarush.jira.ref.ReferenceService;
+import com.javarush.jira.ref.StatusTransitions;
 import com.javarush.jira.ref.internal.Reference;
 import com.javarush.jira.ref.internal.ReferenceRepository;
+import com.javarush.jira.ref.internal.ReferenceSync;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.util.List;
+import java.util.Set;
+
 import static com.javarush.jira.common.util.JsonUtil.writeValue;
 import static com.javarush.jira.login.internal.web.UserTestData.ADMIN_MAIL;
 import static com.javarush.jira.ref.internal.web.ReferenceTestData.*;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -31,6 +42,10 @@ public class ReferenceControllerTest extends AbstractControllerTest {
     private ReferenceRepository referenceRepository;
     @Autowired
     private ReferenceService referenceService;
+    @Autowired
+    private ReferenceSync referenceSync;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     @BeforeEach
     void reInit() {
@@ -83,6 +98,28 @@ public class ReferenceControllerTest extends AbstractControllerTest {
         REFERENCE_MATCHER.assertMatch(getRef(), getUpdated());
     }
 
+    @Test
+    @WithUserDetails(value = ADMIN_MAIL)
+    void updatePublishesNewSnapshot() throws Exception {
+        RefSnapshot before = ReferenceService.getSnapshot();
+        String eTag = perform(MockMvcRequestBuilders.get(REST_URL + RefType.TASK))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        perform(MockMvcRequestBuilders.get(REST_URL + RefType.TASK)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        update();
+        RefSnapshot after = ReferenceService.getSnapshot();
+        assertTrue(after.version() > before.version());
+        assertEquals("Task1", getRefTo().getTitle());
+        assertNotEquals("Task1", before.getRefs(RefType.TASK).get(TASK_CODE).getTitle());
+        perform(MockMvcRequestBuilders.get(REST_URL + RefType.TASK)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$." + TASK_CODE + ".title", is("Task1")));
+    }
+
     @Test
     @WithUserDetails(value = ADMIN_MAIL)
     void create() throws Exception {
@@ -125,6 +162,51 @@ public class ReferenceControllerTest extends AbstractControllerTest {
         assertTrue(getRefTo().isEnabled());
     }
 
+    @Test
+    @WithUserDetails(value = ADMIN_MAIL)
+    void precompiledLookups() throws Exception {
+        StatusTransitions transitions = ReferenceService.getStatusTransitions();
+        assertTrue(transitions.isChangePossible("todo", "todo"));
+        assertTrue(transitions.isChangePossible("ready_for_test", "review"));
+        assertFalse(transitions.isChangePossible("todo", "done"));
+        assertFalse(transitions.isChangePossible("todo", "unknown"));
+        assertEquals(List.of("review", "ready_for_test", "test", "canceled"), List.copyOf(transitions.getPossibleRefs("ready_for_test").keySet()));
+        assertEquals("task_reviewer", transitions.getUserType("review"));
+        assertNull(transitions.getUserType("done"));
+        assertThrows(IllegalArgumentException.class, () -> transitions.isChangePossible("unknown", "todo"));
+
+        NotificationMasks masks = ReferenceService.getNotificationMasks();
+        assertEquals(17, masks.toMask(Set.of("assigned", "deadline")));
+        assertEquals(Set.of("assigned", "deadline"), masks.toCodes(17));
+        assertEquals(Set.of(), masks.toCodes(0));
+
+        assertTrue(ReferenceService.getEnabledRefs(RefType.TASK).containsKey(TASK_CODE));
+        perform(MockMvcRequestBuilders.patch(REST_URL + RefType.TASK + "/" + TASK_CODE)
+                .param("enabled", "false"))
+                .andExpect(status().isNoContent());
+        assertFalse(ReferenceService.getEnabledRefs(RefType.TASK).containsKey(TASK_CODE));
+        assertTrue(ReferenceService.getRefs(RefType.TASK).containsKey(TASK_CODE));
+    }
+
+    @Test
+    void changeOfOtherNodeReloaded() throws Exception {
+        jdbcTemplate.update("UPDATE reference SET title = 'Remote' WHERE ref_type = ? AND code = ?", RefType.TASK.ordinal(), TASK_CODE);
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, ReferenceSync.CHANNEL, "other-node:" + RefType.TASK);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!"Remote".equals(getRefTo().getTitle()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals("Remote", getRefTo().getTitle());
+    }
+
+    @Test
+    void reconcileReloadsNotNotifiedChange() {
+        referenceSync.reconcile();
+        jdbcTemplate.update("UPDATE reference SET title = 'Lost' WHERE ref_type = ? AND code = ?", RefType.TASK.ordinal(), TASK_CODE);
+        referenceSync.reconcile();
+        assertEquals("Lost", getRefTo().getTitle());
+    }
+
     @NonNull
     private RefTo getRefTo() {
         return ReferenceService.getRefTo(RefType.TASK, TASK_CODE);
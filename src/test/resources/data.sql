@@ -86,6 +86,21 @@ values (1, 1, '2023-05-15 09:05:10', null, 'Data', null, 3, 'epic', 'in_progress
        (1, 1, '2023-05-15 14:05:10', null, 'Data', null, 4, null, null, null),
        (1, 2, '2023-05-15 12:05:10', null, 'Trees', 'Trees desc', 4, 'epic', 'in_progress', 'normal');
 
+update TASK
+set PRIORITY_CODE = 'normal',
+    ESTIMATE      = 4,
+    UPDATED       = '2023-05-15 14:05:10'
+where ID = 1;
+update TASK
+set DESCRIPTION   = 'Trees desc',
+    PRIORITY_CODE = 'normal',
+    ESTIMATE      = 4,
+    UPDATED       = '2023-05-15 12:05:10'
+where ID = 2;
+-- all test tasks are roots
+update TASK
+set PATH = array [ID];
+
 insert into USER_BELONG (OBJECT_ID, OBJECT_TYPE, USER_ID, USER_TYPE_CODE, STARTPOINT, ENDPOINT)
 values (1, 2, 2, 'task_developer', '2023-06-14 08:35:10', '2023-06-14 08:55:00'),
        (1, 2, 2, 'task_reviewer', '2023-06-14 09:35:10', null),
@@ -0,0 +1,69 @@
+-- production-like volume over data.sql for QueryPlanTest: plans of small tables say nothing about indexes
+insert into USERS (EMAIL, PASSWORD, FIRST_NAME, LAST_NAME, DISPLAY_NAME)
+select 'plan' || g || '@gmail.com', '{noop}password', 'first' || g, 'last' || g, 'planUser' || g
+from generate_series(1, 1000) g;
+
+insert into PROJECT (CODE, TITLE, DESCRIPTION, TYPE_CODE, PARENT_ID)
+select 'PLAN' || g, 'Plan project ' || g, 'plan project', 'task_tracker', case when g % 10 = 0 then 1 end
+from generate_series(1, 200) g;
+
+insert into SPRINT (STATUS_CODE, STARTPOINT, ENDPOINT, CODE, PROJECT_ID)
+select case when g % 10 = 0 then 'active' else 'finished' end,
+       timestamp '2023-01-01' + g * interval '1 hour',
+       case when g % 10 = 0 then null else timestamp '2023-06-01' + g * interval '1 hour' end,
+       'PLAN-SP-' || g, p.ID
+from generate_series(1, 10) g
+         cross join PROJECT p
+where p.CODE like 'PLAN%';
+
+with ROOTS as (
+    insert into TASK (TITLE, TYPE_CODE, STATUS_CODE, PROJECT_ID, SPRINT_ID, ESTIMATE, STARTPOINT)
+        select 'plan task ' || g,
+               'task',
+               (array ['todo', 'in_progress', 'ready_for_review', 'done', 'canceled'])[1 + g % 5],
+               s.PROJECT_ID,
+               case when g % 7 = 0 then null else s.ID end,
+               1 + g % 8,
+               timestamp '2023-01-01' + g * interval '1 minute'
+        from generate_series(1, 50000) g
+                 join SPRINT s on s.CODE = 'PLAN-SP-' || (1 + g % 10) and s.PROJECT_ID = 3 + g % 200
+        returning ID, PROJECT_ID, SPRINT_ID)
+insert
+into TASK (TITLE, TYPE_CODE, STATUS_CODE, PROJECT_ID, SPRINT_ID, PARENT_ID, ESTIMATE, STARTPOINT)
+select 'plan subtask ' || r.ID, 'task', 'todo', r.PROJECT_ID, r.SPRINT_ID, r.ID, 2, timestamp '2023-01-01' + r.ID * interval '1 minute'
+from ROOTS r
+         cross join generate_series(1, 2) c
+where r.ID % 8 = 0;
+
+update TASK
+set PATH = case when PARENT_ID is null then array [ID] else array [PARENT_ID, ID] end
+where PATH = '{}'
+   or PATH is null;
+
+insert into ACTIVITY (AUTHOR_ID, TASK_ID, UPDATED, COMMENT, TITLE, STATUS_CODE)
+select 5 + (t.ID * 7 + g) % 1000,
+       t.ID,
+       t.STARTPOINT + g * interval '1 hour',
+       case when g = 3 then 'plan comment' end,
+       case when g = 1 then t.TITLE end,
+       case when g = 2 then t.STATUS_CODE end
+from TASK t
+         cross join generate_series(1, 3) g
+where t.ID > 7;
+
+insert into USER_BELONG (OBJECT_ID, OBJECT_TYPE, USER_ID, USER_TYPE_CODE, STARTPOINT, ENDPOINT)
+select t.ID, 2, 5 + t.ID % 1000, 'task_developer', t.STARTPOINT, case when t.ID % 3 = 0 then t.STARTPOINT + interval '1 day' end
+from TASK t
+where t.ID > 7;
+
+insert into ATTACHMENT (NAME, FILE_LINK, OBJECT_ID, OBJECT_TYPE, USER_ID, DATE_TIME)
+select 'plan' || t.ID || '.txt', './attachments/plan/' || t.ID || '.txt', t.ID, 2, 5 + t.ID % 1000, t.STARTPOINT
+from TASK t
+where t.ID % 5 = 0;
+
+insert into TASK_TAG (TASK_ID, TAG)
+select t.ID, 'tag' || t.ID % 50
+from TASK t
+where t.ID % 2 = 0;
+
+analyze;